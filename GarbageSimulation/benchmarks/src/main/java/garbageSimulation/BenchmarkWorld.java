@@ -0,0 +1,137 @@
+package garbageSimulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import repast.simphony.context.Context;
+import repast.simphony.context.DefaultContext;
+import repast.simphony.context.space.continuous.ContinuousSpaceFactoryFinder;
+import repast.simphony.random.RandomHelper;
+import repast.simphony.space.continuous.ContinuousSpace;
+import repast.simphony.space.continuous.NdPoint;
+import repast.simphony.space.continuous.RandomCartesianAdder;
+import repast.simphony.space.continuous.WrapAroundBorders;
+
+/**
+ * A populated model for the benchmarks, set up the way GarbageCollectionBuilder
+ * sets up a run but with any number of bins and vehicles at seeded random positions.
+ * The simulation clock is set by hand, so timeouts only pass when a benchmark says so.
+ */
+final class BenchmarkWorld {
+    static final double SIZE = 50.0;
+    private static final double VEHICLE_GRID_CELL_SIZE = 20.0;
+    private static final double NEIGHBOR_SKIN = 10.0;
+
+    private static final String[] AREA_TYPES = {
+        GarbageBin.AREA_COMMERCIAL, GarbageBin.AREA_RESIDENTIAL, GarbageBin.AREA_LOW_DENSITY
+    };
+
+    // Current time of the simulation clock while a benchmark world is in use
+    private static volatile long now = 0;
+
+    final ContinuousSpace<Object> space;
+    final AgentRegistry registry;
+    final List<GarbageBin> bins = new ArrayList<>();
+    final List<Vehicle> vehicles = new ArrayList<>();
+
+    /**
+     * Create a world with every bin between 70% and 100% full.
+     *
+     * @param binCount Number of bins
+     * @param vehicleCount Number of vehicles
+     * @param config Settings of the run
+     * @param seed Seed for the positions and fill levels
+     */
+    BenchmarkWorld(int binCount, int vehicleCount, SimulationConfig config, long seed) {
+        EventLog.setLevel(EventLog.Level.OFF);
+        SimulationClock.setTimeSource(() -> now);
+        now = 0;
+        RandomHelper.setSeed((int) seed);
+        Random random = new Random(seed);
+
+        Context<Object> context = new DefaultContext<>();
+        space = ContinuousSpaceFactoryFinder.createContinuousSpaceFactory(null)
+                                            .createContinuousSpace("space", context,
+                                                                   new RandomCartesianAdder<Object>(),
+                                                                   new WrapAroundBorders(), SIZE, SIZE);
+        SpatialGrid<Vehicle> vehicleGrid = new SpatialGrid<>(SIZE, SIZE, VEHICLE_GRID_CELL_SIZE);
+        VehicleNeighborList neighborList =
+            new VehicleNeighborList(vehicleGrid, Vehicle.COMMUNICATION_RADIUS, NEIGHBOR_SKIN);
+        registry = new AgentRegistry(neighborList, config);
+
+        for (int id = 1; id <= binCount; id++) {
+            GarbageBin bin = new GarbageBin(space, registry, id, 100.0, AREA_TYPES[id % AREA_TYPES.length]);
+            context.add(bin);
+            registry.addBin(bin);
+            space.moveTo(bin, random.nextDouble() * SIZE, random.nextDouble() * SIZE);
+            double target = bin.getCapacity() * (0.7 + random.nextDouble() * 0.3);
+            bin.fill(Math.max(0, target - bin.getFillLevel()));
+            bins.add(bin);
+        }
+
+        for (int id = 1; id <= vehicleCount; id++) {
+            Vehicle vehicle = new Vehicle(space, registry, id, "Collector " + id, 1.0);
+            context.add(vehicle);
+            registry.addVehicle(vehicle);
+            space.moveTo(vehicle, random.nextDouble() * SIZE, random.nextDouble() * SIZE);
+            NdPoint location = space.getLocation(vehicle);
+            neighborList.update(vehicle, location.getX(), location.getY());
+            vehicles.add(vehicle);
+        }
+    }
+
+    /**
+     * Send bin broadcasts through a broadcast bus, as the builder does when
+     * broadcastDigests is set, and subscribe every vehicle at its position.
+     *
+     * @return The bus, whose deliver() hands out the digests
+     */
+    BroadcastBus useBroadcastBus() {
+        double radius = registry.getConfig().getBroadcastRadius();
+        BroadcastBus bus = new BroadcastBus(SIZE, SIZE, radius, GarbageBin.broadcastRange(radius, true));
+        registry.setBroadcastBus(bus);
+        for (Vehicle vehicle : vehicles) {
+            NdPoint location = space.getLocation(vehicle);
+            vehicle.updateIndexes(location.getX(), location.getY());
+        }
+        return bus;
+    }
+
+    /**
+     * Let every vehicle know about every bin, as if the information had been shared.
+     */
+    void shareAllBins() {
+        List<BinStatusMessage> messages = binMessages(MessageType.BIN_INFO);
+        for (Vehicle vehicle : vehicles) {
+            for (BinStatusMessage message : messages) {
+                vehicle.receiveMessage(message);
+            }
+            vehicle.processMessages();
+        }
+    }
+
+    /**
+     * Build a status message of every bin.
+     *
+     * @param type BIN_BROADCAST or BIN_INFO
+     */
+    List<BinStatusMessage> binMessages(MessageType type) {
+        List<BinStatusMessage> messages = new ArrayList<>();
+        for (GarbageBin bin : bins) {
+            NdPoint location = space.getLocation(bin);
+            messages.add(new BinStatusMessage(bin.getId(), type, bin.getId(), location.getX(), location.getY(),
+                                              bin.getFillLevel(), bin.getCapacity(), bin.getAreaType(),
+                                              bin.getFillPercentage() >= 90));
+        }
+        return messages;
+    }
+
+    /**
+     * Move the simulation clock forward.
+     *
+     * @param millis Milliseconds to advance
+     */
+    static void advance(long millis) {
+        now += millis;
+    }
+}
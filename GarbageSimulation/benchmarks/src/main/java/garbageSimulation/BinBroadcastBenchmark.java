@@ -0,0 +1,63 @@
+package garbageSimulation;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of one broadcast round: every bin above the threshold finds the vehicles
+ * in range and sends them its status, or publishes it to its cell of a broadcast
+ * bus whose digests are then delivered.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BinBroadcastBenchmark {
+    @Param({"10", "100", "1000"})
+    public int bins;
+
+    @Param({"4", "32", "128"})
+    public int vehicles;
+
+    @Param({"false", "true"})
+    public boolean digests;
+
+    private BenchmarkWorld world;
+    private BroadcastBus bus;
+    private long cooldown;
+
+    @Setup
+    public void setup() {
+        SimulationConfig config = new SimulationConfig();
+        world = new BenchmarkWorld(bins, vehicles, config, 42);
+        cooldown = config.getBroadcastCooldown();
+        bus = digests ? world.useBroadcastBus() : null;
+    }
+
+    @Benchmark
+    public void broadcastStatus() {
+        // Let the broadcast cooldown pass so every bin broadcasts again
+        BenchmarkWorld.advance(cooldown);
+        for (GarbageBin bin : world.bins) {
+            bin.broadcastStatus();
+        }
+        if (bus != null) {
+            bus.deliver();
+        }
+        for (Vehicle vehicle : world.vehicles) {
+            vehicle.clearInbox();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package garbageSimulation;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of one fill round over all bins, either bin by bin (addGarbage) or in one
+ * pass over a columnar BinStore. Bins are emptied now and then so that levels keep
+ * changing and thresholds keep being crossed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BinFillBenchmark {
+    // Fill rounds between emptying all bins
+    private static final int ROUNDS_PER_EMPTYING = 20;
+
+    @Param({"1000", "100000", "1000000"})
+    public int bins;
+
+    @Param({"false", "true"})
+    public boolean columnar;
+
+    private BenchmarkWorld world;
+    private BinStore store;
+    private int round = 0;
+
+    @Setup
+    public void setup() {
+        SimulationConfig config = new SimulationConfig();
+        world = new BenchmarkWorld(bins, 0, config, 42);
+        if (columnar) {
+            store = new BinStore(bins, config.getFullnessThreshold(), GarbageBin.FORECAST_SMOOTHING);
+            for (GarbageBin bin : world.bins) {
+                bin.attachTo(store);
+            }
+        }
+    }
+
+    @Benchmark
+    public void fillAll() {
+        BenchmarkWorld.advance(SimulationClock.MILLIS_PER_TICK * 20);
+        List<GarbageBin> all = world.bins;
+        if (++round % ROUNDS_PER_EMPTYING == 0) {
+            for (int i = 0; i < all.size(); i++) {
+                all.get(i).emptyBin();
+            }
+        }
+
+        if (columnar) {
+            store.fillAll();
+        } else {
+            for (int i = 0; i < all.size(); i++) {
+                all.get(i).addGarbage();
+            }
+        }
+    }
+}
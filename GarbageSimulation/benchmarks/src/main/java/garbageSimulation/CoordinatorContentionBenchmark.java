@@ -0,0 +1,85 @@
+package garbageSimulation;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of claiming and releasing bins (requestBinAssignment, releaseBin) while
+ * other threads check availability (isBinAvailable), all on one coordinator, as
+ * when the fleet is stepped in parallel. Each operation picks a random vehicle
+ * and bin. The emptying cooldown is zero and the wall clock is used, so released
+ * bins can be claimed again and the coordinator's expiry queues keep draining.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CoordinatorContentionBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Coordinator {
+        @Param({"10", "100", "1000"})
+        public int bins;
+
+        @Param({"4", "32", "128"})
+        public int vehicles;
+
+        TaskCoordinator coordinator;
+
+        @Setup
+        public void setup() {
+            EventLog.setLevel(EventLog.Level.OFF);
+            SimulationClock.setTimeSource(SimulationClock.WALL_CLOCK);
+            coordinator = new TaskCoordinator(new SimulationConfig(20.0, 0.7, 5000, 10, vehicles, 150.0, 0));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Picker {
+        private static final AtomicLong seeds = new AtomicLong(42);
+        private final SplittableRandom random = new SplittableRandom(seeds.getAndIncrement());
+
+        int vehicleId(Coordinator state) {
+            return 1 + random.nextInt(state.vehicles);
+        }
+
+        int binId(Coordinator state) {
+            return 1 + random.nextInt(state.bins);
+        }
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(3)
+    public boolean requestBinAssignment(Coordinator state, Picker picker) {
+        int vehicleId = picker.vehicleId(state);
+        int binId = picker.binId(state);
+        boolean assigned = state.coordinator.requestBinAssignment(vehicleId, binId);
+        if (assigned) {
+            state.coordinator.releaseBin(vehicleId, binId);
+        }
+        return assigned;
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public boolean isBinAvailable(Coordinator state, Picker picker) {
+        return state.coordinator.isBinAvailable(picker.binId(state));
+    }
+}
@@ -0,0 +1,104 @@
+package garbageSimulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import garbageSimulation.BinKnowledge.BinInfo;
+import repast.simphony.space.continuous.NdPoint;
+
+/**
+ * Cost of scoring a block of candidate bins from one vehicle position, either
+ * pair by pair through space.getDistance() and Vehicle.targetScore() as bin
+ * selection used to, or in one pass of the scalar or the vector DistanceKernel.
+ * The forked JVM gets the Vector API module, so DistanceKernel.create() finds
+ * the vector kernel.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Benchmark)
+public class DistanceKernelBenchmark {
+    @Param({"16", "256", "4096"})
+    public int candidates;
+
+    private BenchmarkWorld world;
+    private List<BinInfo> bins;
+    private NdPoint position;
+    private double[] xs;
+    private double[] ys;
+    private double[] priorities;
+    private double[] scores;
+    private DistanceKernel scalar;
+    private DistanceKernel vector;
+
+    @Setup
+    public void setup() {
+        world = new BenchmarkWorld(0, 0, new SimulationConfig(), 42);
+        Random random = new Random(42);
+        bins = new ArrayList<>();
+        xs = new double[candidates];
+        ys = new double[candidates];
+        priorities = new double[candidates];
+        scores = new double[candidates];
+        BinKnowledge knowledge = new BinKnowledge(candidates, Long.MAX_VALUE, 0, BenchmarkWorld.SIZE, BenchmarkWorld.SIZE);
+        for (int i = 0; i < candidates; i++) {
+            BinInfo bin = knowledge.report(i + 1, random.nextDouble() * BenchmarkWorld.SIZE, 
+                                           random.nextDouble() * BenchmarkWorld.SIZE, 70 + random.nextDouble() * 30, 100.0, 
+                                           GarbageBin.AREA_RESIDENTIAL, random.nextDouble() < 0.3, 0, 0);
+            bins.add(bin);
+            xs[i] = bin.x;
+            ys[i] = bin.y;
+            priorities[i] = bin.priority;
+        }
+        position = new NdPoint(BenchmarkWorld.SIZE / 4, BenchmarkWorld.SIZE / 3);
+        scalar = new ScalarDistanceKernel(BenchmarkWorld.SIZE, BenchmarkWorld.SIZE);
+        vector = DistanceKernel.create(BenchmarkWorld.SIZE, BenchmarkWorld.SIZE);
+        if (vector instanceof ScalarDistanceKernel) {
+            throw new IllegalStateException("Vector API not available, run with --add-modules jdk.incubator.vector");
+        }
+    }
+
+    @Benchmark
+    public double perPair() {
+        double best = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < bins.size(); i++) {
+            BinInfo bin = bins.get(i);
+            best = Math.max(best, Vehicle.targetScore(world.space.getDistance(position, bin.getLocation()), 
+                                                      bin.getFillPercentage(), bin.isUrgent));
+        }
+        return best;
+    }
+
+    @Benchmark
+    public double scalarKernel() {
+        return bestScore(scalar);
+    }
+
+    @Benchmark
+    public double vectorKernel() {
+        return bestScore(vector);
+    }
+
+    private double bestScore(DistanceKernel kernel) {
+        kernel.targetScores(position.getX(), position.getY(), xs, ys, priorities, candidates, scores);
+        double best = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < candidates; i++) {
+            best = Math.max(best, scores[i]);
+        }
+        return best;
+    }
+}
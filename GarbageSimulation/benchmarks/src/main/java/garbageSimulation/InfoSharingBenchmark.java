@@ -0,0 +1,94 @@
+package garbageSimulation;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import repast.simphony.space.continuous.NdPoint;
+
+/**
+ * Cost of every vehicle sharing its bin knowledge with the vehicles in
+ * communication range (shareInfoWithNearbyVehicles). The received messages are
+ * dropped unprocessed; processing them is measured by VehicleMessageBenchmark.
+ * In moveAndShare every vehicle first travels one unit per tick, as vehicles on
+ * their way to a bin do, and the neighbor list rebuilds are counted per tick.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InfoSharingBenchmark {
+    @Param({"10", "100", "1000"})
+    public int bins;
+
+    @Param({"4", "32", "128"})
+    public int vehicles;
+
+    private BenchmarkWorld world;
+    private double[] headings;
+
+    /**
+     * Counters reported next to the timing of moveAndShare.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Rebuilds {
+        public long ticks;
+        public long rebuilds;
+    }
+
+    @Setup
+    public void setup() {
+        world = new BenchmarkWorld(bins, vehicles, new SimulationConfig(), 42);
+        world.shareAllBins();
+        Random random = new Random(42);
+        headings = new double[vehicles];
+        for (int i = 0; i < vehicles; i++) {
+            headings[i] = random.nextDouble() * 2 * Math.PI;
+        }
+    }
+
+    @Benchmark
+    public void shareInfoWithNearbyVehicles() {
+        for (Vehicle vehicle : world.vehicles) {
+            vehicle.shareInfoWithNearbyVehicles();
+        }
+        for (Vehicle vehicle : world.vehicles) {
+            vehicle.clearInbox();
+        }
+    }
+
+    @Benchmark
+    public void moveAndShare(Rebuilds counters) {
+        VehicleNeighborList neighborList = world.registry.getNeighborList();
+        int before = neighborList.getRebuildCount();
+        for (int i = 0; i < world.vehicles.size(); i++) {
+            Vehicle vehicle = world.vehicles.get(i);
+            NdPoint location = world.space.getLocation(vehicle);
+            double x = wrap(location.getX() + Math.cos(headings[i]));
+            double y = wrap(location.getY() + Math.sin(headings[i]));
+            world.space.moveTo(vehicle, x, y);
+            vehicle.updateIndexes(x, y);
+        }
+        shareInfoWithNearbyVehicles();
+        counters.ticks++;
+        counters.rebuilds += neighborList.getRebuildCount() - before;
+    }
+
+    private static double wrap(double coordinate) {
+        double wrapped = coordinate % BenchmarkWorld.SIZE;
+        return (wrapped < 0) ? wrapped + BenchmarkWorld.SIZE : wrapped;
+    }
+}
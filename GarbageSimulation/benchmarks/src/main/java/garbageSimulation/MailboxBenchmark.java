@@ -0,0 +1,92 @@
+package garbageSimulation;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost of sending bin statuses to one vehicle mailbox from several threads,
+ * as when bins broadcast in parallel, while the owner drains it. Each send
+ * picks a random bin; with few slots the mailbox overflows and statuses
+ * replace the unread status of the same bin or are dropped.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MailboxBenchmark {
+
+    @State(Scope.Group)
+    public static class Inbox {
+        @Param({"16", "256"})
+        public int capacity;
+
+        @Param({"100"})
+        public int bins;
+
+        Mailbox mailbox;
+
+        @Setup
+        public void setup() {
+            SimulationClock.setTimeSource(SimulationClock.WALL_CLOCK);
+            mailbox = new Mailbox(capacity);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Sender {
+        private static final AtomicLong seeds = new AtomicLong(42);
+        private final SplittableRandom random = new SplittableRandom(seeds.getAndIncrement());
+    }
+
+    @State(Scope.Thread)
+    public static class Owner {
+        Mailbox.Consumer consumer;
+
+        @Setup
+        public void setup(Blackhole blackhole) {
+            consumer = new Mailbox.Consumer() {
+                @Override
+                public void status(MessageType type, BinStatus status) {
+                    blackhole.consume(status.getFillLevel());
+                }
+
+                @Override
+                public void message(Message message) {
+                    blackhole.consume(message);
+                }
+            };
+        }
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(3)
+    public void sendStatus(Inbox state, Sender sender) {
+        int binId = 1 + sender.random.nextInt(state.bins);
+        state.mailbox.sendStatus(MessageType.BIN_BROADCAST, binId, binId, binId, binId, 80.0, 100.0,
+                                 GarbageBin.AREA_RESIDENTIAL, false);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public void drain(Inbox state, Owner owner) {
+        state.mailbox.drain(owner.consumer);
+    }
+}
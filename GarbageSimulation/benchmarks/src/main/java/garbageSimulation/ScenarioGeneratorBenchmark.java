@@ -0,0 +1,76 @@
+package garbageSimulation;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import repast.simphony.context.Context;
+import repast.simphony.context.DefaultContext;
+import repast.simphony.context.space.continuous.ContinuousSpaceFactoryFinder;
+import repast.simphony.space.continuous.ContinuousSpace;
+import repast.simphony.space.continuous.RandomCartesianAdder;
+import repast.simphony.space.continuous.WrapAroundBorders;
+
+/**
+ * Startup cost of a generated city: ScenarioGenerator.populate laying out the zones
+ * and placing every bin and vehicle in bulk, up to the target of a million bins
+ * and ten thousand vehicles. Each measurement populates a fresh, empty model, set
+ * up as GarbageCollectionBuilder does with generateScenario.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class ScenarioGeneratorBenchmark {
+    private static final double SIZE = 1000.0;
+    private static final double VEHICLE_GRID_CELL_SIZE = 20.0;
+    private static final double NEIGHBOR_SKIN = 10.0;
+
+    @Param({"100000", "1000000"})
+    public int bins;
+
+    @Param({"100", "10000"})
+    public int vehicles;
+
+    private Context<Object> context;
+    private ContinuousSpace<Object> space;
+    private PresetLocationAdder<Object> adder;
+    private AgentRegistry registry;
+
+    @Setup(Level.Invocation)
+    public void setup() {
+        EventLog.setLevel(EventLog.Level.OFF);
+        SimulationClock.setTimeSource(() -> 0L);
+        SimulationConfig defaults = new SimulationConfig();
+        SimulationConfig config = new SimulationConfig(defaults.getBroadcastRadius(), defaults.getFullnessThreshold(),
+                                                       defaults.getBroadcastCooldown(), defaults.getCollectionDuration(),
+                                                       vehicles, defaults.getVehicleCapacity(),
+                                                       defaults.getEmptyCooldown());
+
+        context = new DefaultContext<>();
+        adder = new PresetLocationAdder<>(new RandomCartesianAdder<Object>());
+        space = ContinuousSpaceFactoryFinder.createContinuousSpaceFactory(null)
+                                            .createContinuousSpace("space", context, adder,
+                                                                   new WrapAroundBorders(), SIZE, SIZE);
+        SpatialGrid<Vehicle> vehicleGrid = new SpatialGrid<>(SIZE, SIZE, VEHICLE_GRID_CELL_SIZE);
+        registry = new AgentRegistry(new VehicleNeighborList(vehicleGrid, Vehicle.COMMUNICATION_RADIUS, NEIGHBOR_SKIN),
+                                     config);
+    }
+
+    @Benchmark
+    public int populate() {
+        new ScenarioGenerator(SIZE, SIZE, bins, 0, 42).populate(context, space, adder, registry);
+        return registry.getBins().size();
+    }
+}
@@ -0,0 +1,55 @@
+package garbageSimulation;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of every idle vehicle scoring all the bins it knows about (findNewTarget).
+ * Vehicles sense as in parallel stepping, so the best bin is only recorded as a
+ * claim intent, which is dropped again to score from the same state next time.
+ * Sensing also removes stale knowledge, which is part of the per-tick cost.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TargetScoringBenchmark {
+    @Param({"10", "100", "1000"})
+    public int bins;
+
+    @Param({"4", "32", "128"})
+    public int vehicles;
+
+    private BenchmarkWorld world;
+
+    @Setup
+    public void setup() {
+        world = new BenchmarkWorld(bins, vehicles, new SimulationConfig(), 42);
+        world.shareAllBins();
+    }
+
+    @Benchmark
+    public int findNewTarget() {
+        int intents = 0;
+        for (Vehicle vehicle : world.vehicles) {
+            vehicle.sense();
+            if (vehicle.hasClaimIntent()) {
+                intents++;
+            }
+            vehicle.discardClaimIntent();
+        }
+        return intents;
+    }
+}
@@ -0,0 +1,66 @@
+package garbageSimulation;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of every vehicle processing a status message of every bin, either as bin
+ * broadcasts (handleBinBroadcast) or as information shared by other vehicles
+ * (handleBinInfo). Batch assignment is switched on so that broadcasts are only
+ * parsed and recorded, not claimed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VehicleMessageBenchmark {
+    @Param({"10", "100", "1000"})
+    public int bins;
+
+    @Param({"4", "32", "128"})
+    public int vehicles;
+
+    private BenchmarkWorld world;
+    private List<BinStatusMessage> broadcasts;
+    private List<BinStatusMessage> sharedInfo;
+
+    @Setup
+    public void setup() {
+        world = new BenchmarkWorld(bins, vehicles, new SimulationConfig(), 42);
+        world.registry.getCoordinator().setBatchAssignment(true);
+        broadcasts = world.binMessages(MessageType.BIN_BROADCAST);
+        sharedInfo = world.binMessages(MessageType.BIN_INFO);
+    }
+
+    @Benchmark
+    public void handleBinBroadcast() {
+        process(broadcasts);
+    }
+
+    @Benchmark
+    public void handleBinInfo() {
+        process(sharedInfo);
+    }
+
+    private void process(List<BinStatusMessage> messages) {
+        for (Vehicle vehicle : world.vehicles) {
+            for (BinStatusMessage message : messages) {
+                vehicle.receiveMessage(message);
+            }
+            vehicle.processMessages();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package garbageSimulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Removal from the linear-probing stripes of AssignmentHistory, in particular
+ * of probe chains that wrap around the end of a table.
+ */
+class AssignmentHistoryTest {
+    private static final long FOREVER = Long.MAX_VALUE;
+
+    /**
+     * Find vehicle-bin pairs of one stripe whose home slots in a table of the
+     * initial size are the given slots, so that their probe chains run across
+     * the end of the table and continue at its start.
+     */
+    private static List<int[]> pairsAt(int stripe, int... homeSlots) {
+        int mask = AssignmentHistory.INITIAL_STRIPE_CAPACITY - 1;
+        List<int[]> pairs = new ArrayList<>();
+        for (int home : homeSlots) {
+            search:
+            for (int vehicleId = 1; ; vehicleId++) {
+                for (int binId = 1; binId <= 1000; binId++) {
+                    long hash = AssignmentHistory.mix(AssignmentHistory.key(vehicleId, binId));
+                    if (AssignmentHistory.stripeIndex(hash) == stripe && ((int) hash & mask) == home
+                        && !contains(pairs, vehicleId, binId)) {
+                        pairs.add(new int[] {vehicleId, binId});
+                        break search;
+                    }
+                }
+            }
+        }
+        return pairs;
+    }
+
+    private static boolean contains(List<int[]> pairs, int vehicleId, int binId) {
+        for (int[] pair : pairs) {
+            if (pair[0] == vehicleId && pair[1] == binId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    void removingFromWrappedChainKeepsLaterEntriesReachable() {
+        // Three pairs homed at the last slot, two at the one before, one at the first:
+        // the chain occupies 62, 63, 0, 1, 2, 3
+        List<int[]> pairs = pairsAt(0, 63, 63, 62, 63, 62, 0);
+
+        for (int order = 0; order < pairs.size(); order++) {
+            AssignmentHistory history = new AssignmentHistory(FOREVER);
+            for (int i = 0; i < pairs.size(); i++) {
+                history.set(pairs.get(i)[0], pairs.get(i)[1], i + 1, 0);
+            }
+
+            // Remove one pair, then all the others must still be found with their counts
+            int[] removed = pairs.get(order);
+            history.set(removed[0], removed[1], 0, 0);
+            assertEquals(0, history.get(removed[0], removed[1]));
+            assertEquals(pairs.size() - 1, history.size());
+            for (int i = 0; i < pairs.size(); i++) {
+                if (i != order) {
+                    assertEquals(i + 1, history.get(pairs.get(i)[0], pairs.get(i)[1]),
+                                 "pair " + i + " after removing pair " + order);
+                }
+            }
+        }
+    }
+
+    @Test
+    void removingWholeWrappedChainInAnyOrderEmptiesTheStripe() {
+        List<int[]> pairs = pairsAt(3, 61, 63, 63, 62, 0, 63, 1, 0);
+        Random random = new Random(7);
+        for (int round = 0; round < 50; round++) {
+            AssignmentHistory history = new AssignmentHistory(FOREVER);
+            for (int[] pair : pairs) {
+                history.increment(pair[0], pair[1], 0);
+            }
+            List<int[]> remaining = new ArrayList<>(pairs);
+            Collections.shuffle(remaining, random);
+            while (!remaining.isEmpty()) {
+                int[] removed = remaining.remove(remaining.size() - 1);
+                history.set(removed[0], removed[1], 0, 0);
+                for (int[] pair : remaining) {
+                    assertEquals(1, history.get(pair[0], pair[1]));
+                }
+            }
+            assertEquals(0, history.size());
+        }
+    }
+
+    @Test
+    void evictionOfExpiredEntriesKeepsRecentOnesReachable() {
+        // Fill one stripe to its load limit with old entries mixed into wrapped chains
+        List<int[]> pairs = pairsAt(5, 63, 63, 62, 0, 63, 1, 62, 63, 0, 63);
+        List<int[]> old = pairs.subList(0, 6);
+        List<int[]> recent = pairs.subList(6, pairs.size());
+        AssignmentHistory history = new AssignmentHistory(100);
+        for (int[] pair : old) {
+            history.increment(pair[0], pair[1], 0);
+        }
+        for (int[] pair : recent) {
+            history.increment(pair[0], pair[1], 150);
+        }
+
+        // Growing the stripe past half full drops the expired entries first
+        int added = 0;
+        for (int vehicleId = 1000; added < AssignmentHistory.INITIAL_STRIPE_CAPACITY / 2; vehicleId++) {
+            long hash = AssignmentHistory.mix(AssignmentHistory.key(vehicleId, 1));
+            if (AssignmentHistory.stripeIndex(hash) == 5) {
+                history.increment(vehicleId, 1, 150);
+                added++;
+            }
+        }
+        for (int[] pair : old) {
+            assertEquals(0, history.get(pair[0], pair[1]));
+        }
+        for (int[] pair : recent) {
+            assertEquals(1, history.get(pair[0], pair[1]));
+        }
+        assertEquals(recent.size() + added, history.size());
+    }
+
+    @Test
+    void matchesMapUnderRandomUpdates() {
+        Random random = new Random(3);
+        AssignmentHistory history = new AssignmentHistory(FOREVER);
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int step = 0; step < 200_000; step++) {
+            int vehicleId = random.nextInt(40);
+            int binId = random.nextInt(300);
+            long key = AssignmentHistory.key(vehicleId, binId);
+            switch (random.nextInt(3)) {
+                case 0:
+                    history.increment(vehicleId, binId, step);
+                    expected.merge(key, 1, Integer::sum);
+                    break;
+                case 1:
+                    int count = random.nextInt(3);
+                    history.set(vehicleId, binId, count, step);
+                    if (count == 0) {
+                        expected.remove(key);
+                    } else {
+                        expected.put(key, count);
+                    }
+                    break;
+                default:
+                    assertEquals(expected.getOrDefault(key, 0).intValue(), history.get(vehicleId, binId));
+                    break;
+            }
+        }
+        assertEquals(expected.size(), history.size());
+        assertTrue(history.size() > 0);
+    }
+}
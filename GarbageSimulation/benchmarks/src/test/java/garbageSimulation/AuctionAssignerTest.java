@@ -0,0 +1,140 @@
+package garbageSimulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * AuctionAssigner on SparseBenefits against the brute-force optimum of small
+ * problems, with rows cut to as many candidates as there are bidders and with
+ * the prices and assignments of earlier solves carried over.
+ */
+class AuctionAssignerTest {
+    private static final double TOLERANCE = 1e-4;  // Relative to the largest benefit, as in AuctionAssigner
+
+    private static double[][] randomBenefits(Random random, int bidders, int objects) {
+        double[][] benefit = new double[bidders][objects];
+        for (double[] row : benefit) {
+            for (int j = 0; j < objects; j++) {
+                // Ties are common in the model, so draw from a few values only
+                row[j] = random.nextInt(5) == 0 ? Double.NEGATIVE_INFINITY : 1 + random.nextInt(20);
+            }
+        }
+        return benefit;
+    }
+
+    private static SparseBenefits sparse(double[][] benefit, int keep) {
+        SparseBenefits problem = new SparseBenefits();
+        problem.clear();
+        for (int j = 0; j < benefit[0].length; j++) {
+            problem.addObject(100 + j);
+        }
+        for (int i = 0; i < benefit.length; i++) {
+            double[] row = benefit[i];
+            problem.addBidder(10 + i, row, keep, j -> row[j] != Double.NEGATIVE_INFINITY);
+        }
+        return problem;
+    }
+
+    /**
+     * Best total benefit of any assignment, found by trying them all.
+     */
+    private static double optimum(double[][] benefit, int bidder, int used) {
+        if (bidder == benefit.length) {
+            return 0;
+        }
+        double best = optimum(benefit, bidder + 1, used);
+        for (int j = 0; j < benefit[bidder].length; j++) {
+            if ((used & (1 << j)) == 0 && benefit[bidder][j] != Double.NEGATIVE_INFINITY) {
+                best = Math.max(best, benefit[bidder][j] + optimum(benefit, bidder + 1, used | (1 << j)));
+            }
+        }
+        return best;
+    }
+
+    private static double maxBenefit(double[][] benefit) {
+        double max = 0;
+        for (double[] row : benefit) {
+            for (double value : row) {
+                max = Math.max(max, value);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Check that an assignment only uses allowed pairs and each object once, and return its total.
+     */
+    private static double total(double[][] benefit, int[] assignment) {
+        boolean[] taken = new boolean[benefit[0].length];
+        double total = 0;
+        for (int i = 0; i < assignment.length; i++) {
+            int j = assignment[i];
+            if (j >= 0) {
+                assertTrue(benefit[i][j] != Double.NEGATIVE_INFINITY, "bidder " + i + " got a forbidden object");
+                assertTrue(!taken[j], "object " + j + " assigned twice");
+                taken[j] = true;
+                total += benefit[i][j];
+            }
+        }
+        return total;
+    }
+
+    @Test
+    void cutRowsKeepTheOptimum() {
+        Random random = new Random(17);
+        for (int round = 0; round < 300; round++) {
+            int bidders = 1 + random.nextInt(6);
+            int objects = 1 + random.nextInt(10);
+            double[][] benefit = randomBenefits(random, bidders, objects);
+            double best = optimum(benefit, 0, 0);
+            double gap = maxBenefit(benefit) * TOLERANCE + 1e-9;
+
+            int[] full = new AuctionAssigner().solve(sparse(benefit, objects));
+            int[] cut = new AuctionAssigner().solve(sparse(benefit, bidders));
+            assertTrue(total(benefit, full) >= best - gap, "round " + round);
+            assertTrue(total(benefit, cut) >= best - gap, "round " + round);
+        }
+    }
+
+    @Test
+    void rowsKeepTheBestAllowedObjectsInOrder() {
+        SparseBenefits problem = new SparseBenefits();
+        problem.clear();
+        for (int j = 0; j < 6; j++) {
+            problem.addObject(j);
+        }
+        double[] row = {3, 9, 5, 9, 7, 1};
+        problem.addBidder(1, row, 3, j -> j != 4);
+
+        int[] kept = new int[problem.rowEnd(0) - problem.rowStart(0)];
+        for (int k = 0; k < kept.length; k++) {
+            kept[k] = problem.column(problem.rowStart(0) + k);
+        }
+        assertEquals("[1, 2, 3]", Arrays.toString(kept));
+    }
+
+    @Test
+    void warmStartsStayOptimalAsBenefitsDrift() {
+        Random random = new Random(29);
+        int bidders = 5;
+        int objects = 9;
+        AuctionAssigner auction = new AuctionAssigner();
+        double[][] benefit = randomBenefits(random, bidders, objects);
+        for (int round = 0; round < 300; round++) {
+            // Move a few benefits, as vehicles and bins do from one tick to the next
+            for (int change = 0; change < 3; change++) {
+                int i = random.nextInt(bidders);
+                int j = random.nextInt(objects);
+                benefit[i][j] = random.nextInt(5) == 0 ? Double.NEGATIVE_INFINITY : 1 + random.nextInt(20);
+            }
+            double best = optimum(benefit, 0, 0);
+            int[] assignment = auction.solve(sparse(benefit, bidders));
+            assertTrue(total(benefit, assignment) >= best - maxBenefit(benefit) * TOLERANCE - 1e-9,
+                       "round " + round);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package garbageSimulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import repast.simphony.random.RandomHelper;
+
+/**
+ * BinStore.fillAll() against the per-bin GarbageBin.addGarbage() path: with the
+ * same random numbers both must leave every bin in the same state.
+ */
+class BinStoreTest {
+    private static final int BINS = 600;
+    private static final int ROUNDS = 80;
+
+    @Test
+    void fillAllMatchesAddingGarbageBinByBin() {
+        SimulationConfig config = new SimulationConfig();
+        BenchmarkWorld perBin = new BenchmarkWorld(BINS, 0, config, 42);
+        BenchmarkWorld columnar = new BenchmarkWorld(BINS, 0, config, 42);
+        BinStore store = new BinStore(BINS, config.getFullnessThreshold(), GarbageBin.FORECAST_SMOOTHING);
+        for (GarbageBin bin : columnar.bins) {
+            bin.attachTo(store);
+        }
+        assertEquals(BINS, store.size());
+
+        int serviced = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            BenchmarkWorld.advance(SimulationClock.MILLIS_PER_TICK * 20);
+
+            // Empty, partly empty and start servicing some bins the same way in both worlds
+            for (int i = 0; i < BINS; i++) {
+                GarbageBin a = perBin.bins.get(i);
+                GarbageBin b = columnar.bins.get(i);
+                if ((i + round) % 17 == 0) {
+                    a.emptyBin();
+                    b.emptyBin();
+                } else if ((i + round) % 23 == 0) {
+                    a.reduceLevel(30);
+                    b.reduceLevel(30);
+                } else if ((i + round) % 29 == 0 && !a.isBeingServiced()) {
+                    a.markAsBeingServiced();
+                    b.markAsBeingServiced();
+                    serviced++;
+                }
+            }
+
+            RandomHelper.setSeed(1000 + round);
+            for (GarbageBin bin : perBin.bins) {
+                bin.addGarbage();
+            }
+            RandomHelper.setSeed(1000 + round);
+            store.fillAll();
+
+            for (int i = 0; i < BINS; i++) {
+                GarbageBin a = perBin.bins.get(i);
+                GarbageBin b = columnar.bins.get(i);
+                String where = "bin " + a.getId() + " in round " + round;
+                assertEquals(a.getFillLevel(), b.getFillLevel(), where);
+                assertEquals(a.isBeingServiced(), b.isBeingServiced(), where);
+                assertEquals(a.predictThresholdCrossing(0.0), b.predictThresholdCrossing(0.0), where);
+                assertEquals(a.predictThresholdCrossing(2.0), b.predictThresholdCrossing(2.0), where);
+            }
+        }
+        assertTrue(serviced > 0);
+    }
+}
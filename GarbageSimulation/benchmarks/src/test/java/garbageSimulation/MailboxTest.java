@@ -0,0 +1,197 @@
+package garbageSimulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Overflow handling of the Mailbox ring: replacing the unread status of the
+ * same bin, counting drops, and accounting for every status sent by several
+ * threads at once.
+ */
+class MailboxTest {
+
+    /**
+     * Consumer that copies what it receives, since a status is only valid during the call.
+     */
+    private static final class Received implements Mailbox.Consumer {
+        final List<MessageType> types = new ArrayList<>();
+        final List<double[]> statuses = new ArrayList<>();  // binId, senderId, fillLevel
+        final List<Message> messages = new ArrayList<>();
+
+        @Override
+        public void status(MessageType type, BinStatus status) {
+            types.add(type);
+            statuses.add(new double[] {status.getBinId(), status.getSenderId(), status.getFillLevel()});
+        }
+
+        @Override
+        public void message(Message message) {
+            messages.add(message);
+        }
+    }
+
+    private static void sendStatus(Mailbox mailbox, MessageType type, int senderId, int binId, double fillLevel) {
+        mailbox.sendStatus(type, senderId, binId, binId, -binId, fillLevel, 100, "residential", false);
+    }
+
+    @Test
+    void fullRingReplacesTheUnreadStatusOfTheSameBin() {
+        Mailbox mailbox = new Mailbox(8);
+        for (int binId = 1; binId <= 8; binId++) {
+            sendStatus(mailbox, binId == 3 ? MessageType.BIN_BROADCAST : MessageType.BIN_INFO, 1, binId, binId);
+        }
+
+        // The ring is full: bin 3 is replaced but stays a broadcast, bin 5 becomes one
+        sendStatus(mailbox, MessageType.BIN_INFO, 99, 3, 50);
+        sendStatus(mailbox, MessageType.BIN_BROADCAST, 98, 5, 60);
+        assertEquals(2, mailbox.getOverflowCount());
+        assertEquals(0, mailbox.getDroppedCount());
+
+        Received received = new Received();
+        mailbox.drain(received);
+        assertEquals(8, received.statuses.size());
+        for (int i = 0; i < 8; i++) {
+            double[] status = received.statuses.get(i);
+            int binId = i + 1;
+            assertEquals(binId, (int) status[0], "statuses keep the order of their first send");
+            if (binId == 3) {
+                assertEquals(99, (int) status[1]);
+                assertEquals(50, status[2]);
+                assertEquals(MessageType.BIN_BROADCAST, received.types.get(i));
+            } else if (binId == 5) {
+                assertEquals(98, (int) status[1]);
+                assertEquals(60, status[2]);
+                assertEquals(MessageType.BIN_BROADCAST, received.types.get(i));
+            } else {
+                assertEquals(1, (int) status[1]);
+                assertEquals(binId, status[2]);
+                assertEquals(MessageType.BIN_INFO, received.types.get(i));
+            }
+        }
+        assertTrue(mailbox.isEmpty());
+    }
+
+    @Test
+    void fullRingDropsTheStatusOfABinWithNoneWaiting() {
+        Mailbox mailbox = new Mailbox(4);
+        for (int binId = 1; binId <= 4; binId++) {
+            sendStatus(mailbox, MessageType.BIN_INFO, 1, binId, binId);
+        }
+        sendStatus(mailbox, MessageType.BIN_BROADCAST, 2, 6, 10);
+        assertEquals(1, mailbox.getOverflowCount());
+        assertEquals(1, mailbox.getDroppedCount());
+
+        // A status already read can't be replaced either
+        Received received = new Received();
+        mailbox.drain(received);
+        for (int binId = 1; binId <= 4; binId++) {
+            sendStatus(mailbox, MessageType.BIN_INFO, 1, binId + 4, binId);
+        }
+        sendStatus(mailbox, MessageType.BIN_INFO, 2, 1, 10);
+        assertEquals(2, mailbox.getDroppedCount());
+
+        received = new Received();
+        mailbox.drain(received);
+        assertEquals(4, received.statuses.size());
+        assertEquals(5, (int) received.statuses.get(0)[0]);
+    }
+
+    @Test
+    void otherMessagesAreKeptInOrderAfterTheRing() {
+        Mailbox mailbox = new Mailbox(2);
+        List<Message> digests = new ArrayList<>();
+        for (int cell = 0; cell < 5; cell++) {
+            Message digest = new CellDigestMessage(cell, Collections.emptyList());
+            digests.add(digest);
+            mailbox.send(digest);
+        }
+        assertEquals(3, mailbox.getOverflowCount());
+        assertEquals(0, mailbox.getDroppedCount());
+
+        Received received = new Received();
+        mailbox.drain(received);
+        assertEquals(digests.size(), received.messages.size());
+        for (int i = 0; i < digests.size(); i++) {
+            assertSame(digests.get(i), received.messages.get(i));
+        }
+        assertTrue(mailbox.isEmpty());
+    }
+
+    @Test
+    void everyStatusFromConcurrentSendersIsReadReplacedOrDropped() throws InterruptedException {
+        final int senders = 4;
+        final int sendsPerSender = 50_000;
+        Mailbox mailbox = new Mailbox(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean torn = new AtomicBoolean();
+        List<Thread> threads = new ArrayList<>();
+        for (int sender = 1; sender <= senders; sender++) {
+            final int senderId = sender;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < sendsPerSender; i++) {
+                    // Bins of a sender only get replaced by the same sender
+                    int binId = senderId * 100 + i % 20;
+                    mailbox.sendStatus(MessageType.BIN_BROADCAST, senderId, binId, i, -i, 2.0 * i, 3.0 * i,
+                                       "residential", false);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        long[] received = new long[1];
+        Mailbox.Consumer consumer = new Mailbox.Consumer() {
+            @Override
+            public void status(MessageType type, BinStatus status) {
+                // The fields of one status are always written together
+                double i = status.getX();
+                if (status.getY() != -i || status.getFillLevel() != 2 * i || status.getCapacity() != 3 * i
+                    || status.getBinId() / 100 != status.getSenderId()
+                    || status.getBinId() % 100 != (int) i % 20) {
+                    torn.set(true);
+                }
+                received[0]++;
+            }
+
+            @Override
+            public void message(Message message) {
+                throw new AssertionError("unexpected message " + message);
+            }
+        };
+
+        start.countDown();
+        boolean running = true;
+        while (running) {
+            running = false;
+            for (Thread thread : threads) {
+                running |= thread.isAlive();
+            }
+            mailbox.drain(consumer);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        mailbox.drain(consumer);
+
+        long sent = (long) senders * sendsPerSender;
+        assertFalse(torn.get(), "a status was read while being written");
+        assertEquals(sent, received[0] + mailbox.getOverflowCount());
+        assertTrue(mailbox.getDroppedCount() <= mailbox.getOverflowCount());
+        assertTrue(mailbox.isEmpty());
+    }
+}
@@ -0,0 +1,75 @@
+package garbageSimulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import repast.simphony.space.continuous.NdPoint;
+
+/**
+ * Runs of ParallelFleetStepper with a fixed seed must not depend on the number of threads.
+ */
+class ParallelFleetStepperTest {
+    private static final int BINS = 400;
+    private static final int VEHICLES = 24;
+    private static final int STEPS = 600;
+
+    // Collections short enough to finish before a vehicle counts as stuck
+    private static final SimulationConfig CONFIG = new SimulationConfig(20.0, 0.7, 5000, 3, VEHICLES, 150.0, 5000);
+
+    // Steps between refreshes of what every vehicle knows about the bins
+    private static final int SHARE_INTERVAL = 40;
+
+    // Long enough per step for assignments to go stale while vehicles are still on their way
+    private static final long MILLIS_PER_STEP = 300;
+
+    /**
+     * Step a seeded world and record the state of every vehicle after each step,
+     * followed by the number of collections completed.
+     */
+    private static List<String> run(int threads) {
+        BenchmarkWorld world = new BenchmarkWorld(BINS, VEHICLES, CONFIG, 42);
+        ParallelFleetStepper stepper = new ParallelFleetStepper(world.registry, threads);
+        List<String> trace = new ArrayList<>();
+        try {
+            for (int step = 0; step < STEPS; step++) {
+                BenchmarkWorld.advance(MILLIS_PER_STEP);
+                if (step % SHARE_INTERVAL == 0) {
+                    world.shareAllBins();  // Stands in for the bin broadcasts, which need a schedule
+                }
+                stepper.execute();
+                StringBuilder line = new StringBuilder();
+                for (Vehicle vehicle : world.vehicles) {
+                    NdPoint location = world.space.getLocation(vehicle);
+                    line.append(vehicle.getId()).append(' ')
+                        .append(location.getX()).append(' ').append(location.getY()).append(' ')
+                        .append(vehicle.getCurrentLoad()).append(' ')
+                        .append(vehicle.getCollectionsCompleted()).append(' ')
+                        .append(vehicle.getStatus()).append(';');
+                }
+                trace.add(line.toString());
+            }
+            int collections = 0;
+            for (Vehicle vehicle : world.vehicles) {
+                collections += vehicle.getCollectionsCompleted();
+            }
+            trace.add(Integer.toString(collections));
+        } finally {
+            stepper.shutdown();
+        }
+        return trace;
+    }
+
+    @Test
+    void resultsDoNotDependOnTheNumberOfThreads() {
+        List<String> sequential = run(1);
+        List<String> parallel = run(4);
+        assertEquals(sequential.size(), parallel.size());
+        for (int step = 0; step < sequential.size(); step++) {
+            assertEquals(sequential.get(step), parallel.get(step), "step " + step);
+        }
+        assertTrue(Integer.parseInt(sequential.get(STEPS)) > VEHICLES, "too few bins were collected to compare");
+    }
+}
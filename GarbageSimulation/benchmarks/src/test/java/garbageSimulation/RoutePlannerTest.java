@@ -0,0 +1,135 @@
+package garbageSimulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tour planning and improvement of RoutePlanner on random bins in a wrap-around space.
+ */
+class RoutePlannerTest {
+    private static final double SIZE = 50.0;
+    private static final double EPSILON = 1e-9;
+
+    private final RoutePlanner planner = new RoutePlanner(SIZE, SIZE);
+
+    private static List<RoutePlanner.Stop> randomStops(Random random, int count) {
+        List<RoutePlanner.Stop> stops = new ArrayList<>();
+        for (int id = 1; id <= count; id++) {
+            stops.add(new RoutePlanner.Stop(id, random.nextDouble() * SIZE, random.nextDouble() * SIZE,
+                                            5 + random.nextDouble() * 30));
+        }
+        return stops;
+    }
+
+    private static double demand(List<RoutePlanner.Stop> tour) {
+        double demand = 0;
+        for (RoutePlanner.Stop stop : tour) {
+            demand += stop.getDemand();
+        }
+        return demand;
+    }
+
+    private static Set<Integer> ids(List<RoutePlanner.Stop> tour) {
+        Set<Integer> ids = new HashSet<>();
+        for (RoutePlanner.Stop stop : tour) {
+            ids.add(stop.getBinId());
+        }
+        return ids;
+    }
+
+    @Test
+    void improvingNeverLengthensTheTourAndKeepsItsStops() {
+        Random random = new Random(11);
+        for (int round = 0; round < 300; round++) {
+            List<RoutePlanner.Stop> tour = randomStops(random, 1 + random.nextInt(15));
+            Collections.shuffle(tour, random);
+            double startX = random.nextDouble() * SIZE;
+            double startY = random.nextDouble() * SIZE;
+            double depotX = random.nextDouble() * SIZE;
+            double depotY = random.nextDouble() * SIZE;
+            Set<Integer> before = ids(tour);
+            int size = tour.size();
+            double length = planner.tourLength(tour, startX, startY, depotX, depotY);
+
+            planner.improve(tour, startX, startY, depotX, depotY);
+
+            assertTrue(planner.tourLength(tour, startX, startY, depotX, depotY) <= length + EPSILON,
+                       "round " + round);
+            assertEquals(size, tour.size());
+            assertEquals(before, ids(tour));
+        }
+    }
+
+    @Test
+    void improvedTourHasNoImprovingReversal() {
+        // A 2-opt optimum: reversing any run of stops doesn't shorten it
+        Random random = new Random(5);
+        for (int round = 0; round < 100; round++) {
+            List<RoutePlanner.Stop> tour = randomStops(random, 2 + random.nextInt(10));
+            planner.improve(tour, 0, 0, 25, 25);
+            double length = planner.tourLength(tour, 0, 0, 25, 25);
+            for (int i = 0; i < tour.size(); i++) {
+                for (int j = i + 1; j < tour.size(); j++) {
+                    List<RoutePlanner.Stop> reversed = new ArrayList<>(tour);
+                    Collections.reverse(reversed.subList(i, j + 1));
+                    assertTrue(planner.tourLength(reversed, 0, 0, 25, 25) >= length - 1e-6);
+                }
+            }
+        }
+    }
+
+    @Test
+    void plannedTourFitsTheCapacity() {
+        Random random = new Random(23);
+        for (int round = 0; round < 200; round++) {
+            List<RoutePlanner.Stop> candidates = randomStops(random, 1 + random.nextInt(40));
+            double capacity = 20 + random.nextDouble() * 100;
+            List<RoutePlanner.Stop> tour = planner.planTour(random.nextDouble() * SIZE, random.nextDouble() * SIZE,
+                                                            10, 10, candidates, capacity);
+            assertTrue(demand(tour) <= capacity + EPSILON, "round " + round);
+            assertEquals(tour.size(), ids(tour).size(), "a stop is visited twice");
+            assertTrue(ids(candidates).containsAll(ids(tour)));
+        }
+    }
+
+    @Test
+    void insertingRespectsTheCapacity() {
+        Random random = new Random(31);
+        for (int round = 0; round < 200; round++) {
+            List<RoutePlanner.Stop> stops = randomStops(random, 2 + random.nextInt(10));
+            RoutePlanner.Stop extra = stops.remove(stops.size() - 1);
+            List<RoutePlanner.Stop> tour = new ArrayList<>(stops);
+            planner.improve(tour, 0, 0, 40, 40);
+            double capacity = demand(tour) + random.nextDouble() * 2 * extra.getDemand();
+
+            List<RoutePlanner.Stop> before = new ArrayList<>(tour);
+            boolean inserted = planner.insertStop(tour, extra, 0, 0, 40, 40, capacity);
+
+            if (demand(before) + extra.getDemand() > capacity) {
+                assertFalse(inserted);
+                assertEquals(before, tour);
+            } else {
+                assertTrue(inserted);
+                assertEquals(before.size() + 1, tour.size());
+                assertTrue(tour.contains(extra));
+                assertTrue(demand(tour) <= capacity + EPSILON);
+            }
+        }
+    }
+
+    @Test
+    void noCandidateFitsGivesAnEmptyTour() {
+        List<RoutePlanner.Stop> candidates = new ArrayList<>();
+        candidates.add(new RoutePlanner.Stop(1, 10, 10, 50));
+        assertTrue(planner.planTour(0, 0, 5, 5, candidates, 10).isEmpty());
+    }
+}
@@ -0,0 +1,69 @@
+package garbageSimulation;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * DistanceKernel on the incubating Vector API, handling as many points per
+ * instruction as the preferred vector width allows, with a scalar tail.
+ * Needs --add-modules jdk.incubator.vector at compile and run time; loaded
+ * by DistanceKernel.create() when available.
+ */
+public final class VectorDistanceKernel implements DistanceKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    
+    private final double width;
+    private final double height;
+    private final ScalarDistanceKernel tail;
+    
+    public VectorDistanceKernel(double width, double height) {
+        this.width = width;
+        this.height = height;
+        this.tail = new ScalarDistanceKernel(width, height);
+    }
+    
+    @Override
+    public void distancesSquared(double x, double y, double[] xs, double[] ys, int count, double[] result) {
+        int bound = SPECIES.loopBound(count);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            distanceSquared(x, y, xs, ys, i).intoArray(result, i);
+        }
+        for (; i < count; i++) {
+            result[i] = tail.distanceSquared(x, y, xs[i], ys[i]);
+        }
+    }
+    
+    @Override
+    public void targetScores(double x, double y, double[] xs, double[] ys, double[] priorities, int count, 
+                             double[] result) {
+        int bound = SPECIES.loopBound(count);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector priority = DoubleVector.fromArray(SPECIES, priorities, i);
+            DoubleVector inverse = DoubleVector.broadcast(SPECIES, 1000.0).div(distanceSquared(x, y, xs, ys, i).add(1.0));
+            inverse.mul(priority).intoArray(result, i);
+        }
+        for (; i < count; i++) {
+            result[i] = 1000.0 / (tail.distanceSquared(x, y, xs[i], ys[i]) + 1.0) * priorities[i];
+        }
+    }
+    
+    /**
+     * Squared wrapped distances from a point to one vector of points starting at an index.
+     */
+    private DoubleVector distanceSquared(double x, double y, double[] xs, double[] ys, int index) {
+        DoubleVector dx = DoubleVector.fromArray(SPECIES, xs, index).sub(x).abs();
+        DoubleVector dy = DoubleVector.fromArray(SPECIES, ys, index).sub(y).abs();
+        
+        // Go around the edge where that is shorter
+        VectorMask<Double> wrapX = dx.compare(VectorOperators.GT, width / 2);
+        VectorMask<Double> wrapY = dy.compare(VectorOperators.GT, height / 2);
+        dx = dx.blend(dx.neg().add(width), wrapX);
+        dy = dy.blend(dy.neg().add(height), wrapY);
+        
+        return dx.mul(dx).add(dy.mul(dy));
+    }
+}
@@ -0,0 +1,200 @@
+package garbageSimulation;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import repast.simphony.engine.environment.RunEnvironment;
+import repast.simphony.engine.schedule.ISchedule;
+
+/**
+ * Registry of the agents in the simulation.
+ * Populated by the builder, it gives constant-time lookup of bins and vehicles
+ * by ID and cached, type-specific lists for iteration, so agents never have to
+ * scan the whole context. It also holds the spatial indexes shared by the agents,
+ * the broadcast bus if one is used, and the run's configuration and task
+ * coordinator, so every run has its own.
+ */
+public class AgentRegistry {
+    private final Map<Integer, GarbageBin> binsById = new HashMap<>();
+    private final Map<Integer, Vehicle> vehiclesById = new HashMap<>();
+    private final List<GarbageBin> bins = new ArrayList<>();
+    private final List<Vehicle> vehicles = new ArrayList<>();
+    
+    // Read-only views handed out for iteration
+    private final List<GarbageBin> binsView = Collections.unmodifiableList(bins);
+    private final List<Vehicle> vehiclesView = Collections.unmodifiableList(vehicles);
+    
+    // IDs of the bins that are over the fullness threshold or being serviced, kept up to date by the bins
+    private final BitSet activeBinIds = new BitSet();
+    
+    // Spatial indexes of the vehicles
+    private final VehicleNeighborList neighborList;
+    
+    // Vehicles on a trip, whose indexed position is only updated now and then, and the tick they were last synced
+    private final Set<Vehicle> travelling = new LinkedHashSet<>();
+    private double travellingSyncedAt = -1;
+    
+    // Settings and coordinator of the run
+    private final SimulationConfig config;
+    private final TaskCoordinator coordinator;
+    
+    // Channels bins broadcast through, or null to send to each vehicle in range directly
+    private BroadcastBus broadcastBus = null;
+    
+    /**
+     * Create a new registry.
+     * 
+     * @param neighborList Neighbor lists (and spatial grid) of the vehicles
+     * @param config Settings of the run
+     */
+    public AgentRegistry(VehicleNeighborList neighborList, SimulationConfig config) {
+        this.neighborList = neighborList;
+        this.config = config;
+        this.coordinator = new TaskCoordinator(config);
+    }
+    
+    /**
+     * Register a bin.
+     * 
+     * @param bin Bin to register
+     */
+    public void addBin(GarbageBin bin) {
+        if (binsById.put(bin.getId(), bin) != null) {
+            throw new IllegalArgumentException("Duplicate bin ID " + bin.getId());
+        }
+        bins.add(bin);
+    }
+    
+    /**
+     * Register a vehicle.
+     * 
+     * @param vehicle Vehicle to register
+     */
+    public void addVehicle(Vehicle vehicle) {
+        if (vehiclesById.put(vehicle.getId(), vehicle) != null) {
+            throw new IllegalArgumentException("Duplicate vehicle ID " + vehicle.getId());
+        }
+        vehicles.add(vehicle);
+    }
+    
+    /**
+     * Look up a bin by ID.
+     * 
+     * @param binId ID of the bin
+     * @return The bin, or null if no bin has this ID
+     */
+    public GarbageBin getBin(int binId) {
+        return binsById.get(binId);
+    }
+    
+    /**
+     * Look up a vehicle by ID.
+     * 
+     * @param vehicleId ID of the vehicle
+     * @return The vehicle, or null if no vehicle has this ID
+     */
+    public Vehicle getVehicle(int vehicleId) {
+        return vehiclesById.get(vehicleId);
+    }
+    
+    public List<GarbageBin> getBins() {
+        return binsView;
+    }
+    
+    /**
+     * Record whether a bin is active, i.e. over the fullness threshold or being serviced.
+     * Called by the bin whenever its broadcast schedule is updated.
+     * 
+     * @param binId ID of the bin
+     * @param active Whether the bin is active
+     */
+    void setBinActive(int binId, boolean active) {
+        activeBinIds.set(binId, active);
+    }
+    
+    /**
+     * Find the active bin with the lowest ID from a given ID on.
+     * 
+     * @param fromId Lowest bin ID to look at
+     * @return ID of the bin, or -1 if no bin from fromId on is active
+     */
+    public int nextActiveBinId(int fromId) {
+        return activeBinIds.nextSetBit(fromId);
+    }
+    
+    public List<Vehicle> getVehicles() {
+        return vehiclesView;
+    }
+    
+    public VehicleNeighborList getNeighborList() {
+        return neighborList;
+    }
+    
+    public SpatialGrid<Vehicle> getVehicleGrid() {
+        return neighborList.getGrid();
+    }
+    
+    /**
+     * Record that a vehicle started or ended a trip with event-driven movement.
+     * 
+     * @param vehicle The vehicle
+     * @param onTrip Whether the vehicle is now on a trip
+     */
+    void setTravelling(Vehicle vehicle, boolean onTrip) {
+        if (onTrip) {
+            travelling.add(vehicle);
+        } else {
+            travelling.remove(vehicle);
+        }
+    }
+    
+    /**
+     * Bring the indexed positions of the vehicles on a trip up to the current tick.
+     * Called before the vehicle grid or the broadcast subscriptions are used to
+     * find recipients; does the work at most once per tick.
+     * 
+     * Keyed on the schedule's tick rather than SimulationClock.now(), which
+     * under the wall clock changes between calls within the same tick.
+     */
+    public void syncTravellingVehicles() {
+        if (travelling.isEmpty()) {
+            return;
+        }
+        // Trips are only made under a schedule
+        ISchedule schedule = RunEnvironment.getInstance().getCurrentSchedule();
+        double tick = schedule.getTickCount();
+        if (tick == travellingSyncedAt) {
+            return;
+        }
+        travellingSyncedAt = tick;
+        for (Vehicle vehicle : travelling) {
+            vehicle.syncPosition();
+        }
+    }
+    
+    public SimulationConfig getConfig() {
+        return config;
+    }
+    
+    public TaskCoordinator getCoordinator() {
+        return coordinator;
+    }
+    
+    /**
+     * Broadcast bin statuses through a bus instead of to each vehicle in range.
+     * 
+     * @param bus The bus, or null to send directly
+     */
+    public void setBroadcastBus(BroadcastBus bus) {
+        this.broadcastBus = bus;
+    }
+    
+    public BroadcastBus getBroadcastBus() {
+        return broadcastBus;
+    }
+}
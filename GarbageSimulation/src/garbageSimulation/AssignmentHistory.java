@@ -0,0 +1,249 @@
+package garbageSimulation;
+
+/**
+ * Count of repeated assignments per vehicle-bin pair.
+ * Entries are stored in open-addressing tables keyed by a primitive long built
+ * from the two IDs, so lookups and updates allocate nothing. The tables are
+ * striped by key, each stripe with its own lock, so vehicles working on
+ * different pairs rarely contend.
+ *
+ * Retention is bounded: a count of zero removes the entry, and entries that
+ * haven't been touched for the retention period are dropped before a stripe
+ * grows, so memory follows the number of recently active pairs rather than
+ * the length of the run.
+ */
+public class AssignmentHistory {
+    static final int STRIPE_COUNT = 16;  // Power of two
+    static final int INITIAL_STRIPE_CAPACITY = 64;  // Power of two
+
+    private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+    private final long retention;
+
+    /**
+     * Create a new history.
+     *
+     * @param retention Time in milliseconds after which an untouched entry may be dropped
+     */
+    public AssignmentHistory(long retention) {
+        this.retention = retention;
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Get the assignment count of a pair.
+     *
+     * @param vehicleId ID of the vehicle
+     * @param binId ID of the bin
+     * @return The count, or 0 if the pair has no entry
+     */
+    public int get(int vehicleId, int binId) {
+        long key = key(vehicleId, binId);
+        long hash = mix(key);
+        return stripeFor(hash).get(key, hash);
+    }
+
+    /**
+     * Add one to the assignment count of a pair.
+     *
+     * @param vehicleId ID of the vehicle
+     * @param binId ID of the bin
+     * @param now Current time in milliseconds
+     */
+    public void increment(int vehicleId, int binId, long now) {
+        long key = key(vehicleId, binId);
+        long hash = mix(key);
+        stripeFor(hash).add(key, hash, 1, now);
+    }
+
+    /**
+     * Set the assignment count of a pair.
+     *
+     * @param vehicleId ID of the vehicle
+     * @param binId ID of the bin
+     * @param count New count; 0 removes the entry
+     * @param now Current time in milliseconds
+     */
+    public void set(int vehicleId, int binId, int count, long now) {
+        long key = key(vehicleId, binId);
+        long hash = mix(key);
+        stripeFor(hash).set(key, hash, count, now);
+    }
+
+    /**
+     * Get the number of pairs with a non-zero count.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private Stripe stripeFor(long hash) {
+        return stripes[stripeIndex(hash)];
+    }
+
+    static int stripeIndex(long hash) {
+        return (int) (hash >>> 60) & (STRIPE_COUNT - 1);
+    }
+
+    static long key(int vehicleId, int binId) {
+        return ((long) vehicleId << 32) | (binId & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Spread the key bits (finalizer of the 64-bit MurmurHash3).
+     */
+    static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /**
+     * Linear-probing table for one stripe. A slot is free when its count is 0.
+     */
+    private final class Stripe {
+        private long[] keys = new long[INITIAL_STRIPE_CAPACITY];
+        private int[] counts = new int[INITIAL_STRIPE_CAPACITY];
+        private long[] lastTouched = new long[INITIAL_STRIPE_CAPACITY];
+        private int size = 0;
+
+        synchronized int get(long key, long hash) {
+            int slot = find(key, hash);
+            return slot >= 0 ? counts[slot] : 0;
+        }
+
+        synchronized void add(long key, long hash, int delta, long now) {
+            int slot = find(key, hash);
+            int count = (slot >= 0 ? counts[slot] : 0) + delta;
+            store(key, hash, slot, count, now);
+        }
+
+        synchronized void set(long key, long hash, int count, long now) {
+            store(key, hash, find(key, hash), count, now);
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        /**
+         * Find the slot holding a key.
+         *
+         * @return The slot, or -1 if the key has no entry
+         */
+        private int find(long key, long hash) {
+            int mask = keys.length - 1;
+            for (int slot = (int) hash & mask; counts[slot] != 0; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        private void store(long key, long hash, int slot, int count, long now) {
+            if (slot >= 0) {
+                if (count == 0) {
+                    removeSlot(slot);
+                } else {
+                    counts[slot] = count;
+                    lastTouched[slot] = now;
+                }
+                return;
+            }
+            if (count == 0) {
+                return;
+            }
+
+            // Keep the load factor at or below one half
+            if ((size + 1) * 2 > keys.length) {
+                evictExpired(now);
+                if ((size + 1) * 2 > keys.length) {
+                    resize(keys.length * 2);
+                }
+            }
+
+            int mask = keys.length - 1;
+            int free = (int) hash & mask;
+            while (counts[free] != 0) {
+                free = (free + 1) & mask;
+            }
+            keys[free] = key;
+            counts[free] = count;
+            lastTouched[free] = now;
+            size++;
+        }
+
+        /**
+         * Drop the entries that haven't been touched within the retention period.
+         */
+        private void evictExpired(long now) {
+            int slot = 0;
+            while (slot < keys.length) {
+                if (counts[slot] != 0 && now - lastTouched[slot] > retention) {
+                    // Removal may shift a later entry into this slot, so look at it again
+                    removeSlot(slot);
+                } else {
+                    slot++;
+                }
+            }
+        }
+
+        /**
+         * Remove the entry in a slot, shifting later entries of the probe sequence back
+         * so that lookups never stop early at the freed slot.
+         */
+        private void removeSlot(int slot) {
+            int mask = keys.length - 1;
+            int free = slot;
+            int next = (free + 1) & mask;
+
+            while (counts[next] != 0) {
+                int home = (int) mix(keys[next]) & mask;
+                // Move the entry back unless its home slot lies cyclically in (free, next]
+                boolean between = (free <= next) ? (free < home && home <= next) : (free < home || home <= next);
+                if (!between) {
+                    keys[free] = keys[next];
+                    counts[free] = counts[next];
+                    lastTouched[free] = lastTouched[next];
+                    free = next;
+                }
+                next = (next + 1) & mask;
+            }
+
+            counts[free] = 0;
+            size--;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            int[] oldCounts = counts;
+            long[] oldTouched = lastTouched;
+
+            keys = new long[capacity];
+            counts = new int[capacity];
+            lastTouched = new long[capacity];
+
+            int mask = capacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldCounts[i] != 0) {
+                    int slot = (int) mix(oldKeys[i]) & mask;
+                    while (counts[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    counts[slot] = oldCounts[i];
+                    lastTouched[slot] = oldTouched[i];
+                }
+            }
+        }
+    }
+}
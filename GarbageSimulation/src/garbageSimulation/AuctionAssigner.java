@@ -0,0 +1,278 @@
+package garbageSimulation;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Auction solver for the assignment of vehicles (bidders) to bins (objects).
+ *
+ * Each unassigned bidder bids for the object with the highest benefit minus price,
+ * raising its price by the margin over the second best choice plus epsilon, until
+ * every bidder either holds an object or finds nothing worth its price. Bidders
+ * and objects may both be left over.
+ *
+ * The result is within bidders * epsilon of the maximum total benefit as long as
+ * every object left over has a price of zero. Prices may start anywhere: the
+ * prices of the last solve are kept by object ID and reused, so repeated solves of
+ * a slowly changing problem start close to their answer and go straight to the
+ * final epsilon, while a cold start scales epsilon down over a few phases.
+ * Left-over objects that still carry a price are repaired at the end by zeroing
+ * their price and letting the affected bidders bid again.
+ *
+ * The assignment of the last solve is kept by bidder and object ID as well. A
+ * bidder that can still get its previous object, and for which it is still
+ * within epsilon of its best choice at the starting prices, holds it from the
+ * start of each phase, so only the bidders whose situation changed bid again.
+ *
+ * Problems are given as SparseBenefits, so a bidder only looks at its own
+ * candidates and the cost of a solve doesn't grow with the objects nobody
+ * wants.
+ */
+public class AuctionAssigner {
+    // Optimality gap allowed relative to the largest benefit
+    private static final double TOLERANCE = 1e-4;
+    // Starting epsilon relative to the largest benefit, without warm-start prices
+    private static final double COLD_EPSILON = 0.25;
+    private static final double EPSILON_FACTOR = 8.0;
+
+    // Repair rounds tried before solving again from zero prices
+    private static final int MAX_REPAIR_ROUNDS = 20;
+
+    // Prices of the objects after the last solve, by object ID
+    private final Map<Integer, Double> warmPrices = new HashMap<>();
+
+    // Object ID each bidder held after the last solve, by bidder ID
+    private final Map<Integer, Integer> warmAssignment = new HashMap<>();
+
+    // Buffers reused between solves
+    private double[] prices = new double[0];
+    private int[] owner = new int[0];
+    private int[] pending = new int[0];
+    private int[] previous = new int[0];  // Entry of each bidder's previous object in its row, or -1
+
+    private long bidCount = 0;
+
+    /**
+     * Solve an assignment problem.
+     *
+     * @param problem Bidders with their candidate objects and benefits
+     * @return Index of the object assigned to each bidder, or -1 if none
+     */
+    public int[] solve(SparseBenefits problem) {
+        int bidders = problem.getBidderCount();
+        int objects = problem.getObjectCount();
+
+        int[] assignment = new int[bidders];
+        Arrays.fill(assignment, -1);
+        if (prices.length < objects) {
+            prices = new double[objects];
+            owner = new int[objects];
+        }
+        if (pending.length < bidders) {
+            pending = new int[bidders];
+            previous = new int[bidders];
+        }
+        Arrays.fill(owner, 0, objects, -1);
+
+        // Scale epsilon to the benefits
+        double maxBenefit = 0;
+        for (int entry = 0; entry < problem.rowStart(bidders); entry++) {
+            maxBenefit = Math.max(maxBenefit, problem.benefit(entry));
+        }
+        if (maxBenefit <= 0 || objects == 0) {
+            warmPrices.clear();
+            warmAssignment.clear();
+            return assignment;
+        }
+
+        // Start from the prices of the previous solve, capped at what anyone would pay now
+        boolean warm = false;
+        for (int j = 0; j < objects; j++) {
+            Double price = warmPrices.get(problem.getObjectId(j));
+            prices[j] = 0;
+            if (price != null && price > 0) {
+                prices[j] = Math.min(price, maxBenefit);
+                warm = true;
+            }
+        }
+
+        // Find each bidder's previous object among its candidates
+        for (int i = 0; i < bidders; i++) {
+            previous[i] = -1;
+            Integer objectId = warmAssignment.get(problem.getBidderId(i));
+            if (objectId != null) {
+                for (int entry = problem.rowStart(i); entry < problem.rowEnd(i); entry++) {
+                    if (problem.getObjectId(problem.column(entry)) == objectId) {
+                        previous[i] = entry;
+                        break;
+                    }
+                }
+            }
+        }
+
+        double finalEpsilon = maxBenefit * TOLERANCE / bidders;
+        double epsilon = warm ? finalEpsilon : maxBenefit * COLD_EPSILON;
+
+        // Scale epsilon down, keeping the prices of each phase for the next
+        while (true) {
+            epsilon = Math.max(epsilon, finalEpsilon);
+            runPhase(problem, assignment, epsilon);
+            if (epsilon == finalEpsilon) {
+                break;
+            }
+            epsilon /= EPSILON_FACTOR;
+        }
+
+        // Left-over objects must end at a price of zero
+        boolean repaired = false;
+        for (int round = 0; round < MAX_REPAIR_ROUNDS && !repaired; round++) {
+            repaired = !repair(problem, assignment, finalEpsilon);
+        }
+        if (!repaired) {
+            Arrays.fill(prices, 0, objects, 0);
+            runPhase(problem, assignment, finalEpsilon);
+        }
+
+        warmPrices.clear();
+        for (int j = 0; j < objects; j++) {
+            if (prices[j] > 0) {
+                warmPrices.put(problem.getObjectId(j), prices[j]);
+            }
+        }
+        warmAssignment.clear();
+        for (int i = 0; i < bidders; i++) {
+            if (assignment[i] >= 0) {
+                warmAssignment.put(problem.getBidderId(i), problem.getObjectId(assignment[i]));
+            }
+        }
+        return assignment;
+    }
+
+    /**
+     * Get the total number of bids made, for profiling.
+     */
+    public long getBidCount() {
+        return bidCount;
+    }
+
+    /**
+     * Run one auction phase at a fixed epsilon, starting from the previous
+     * assignments that still satisfy it.
+     */
+    private void runPhase(SparseBenefits problem, int[] assignment, double epsilon) {
+        int bidders = problem.getBidderCount();
+        Arrays.fill(assignment, -1);
+        Arrays.fill(owner, 0, problem.getObjectCount(), -1);
+
+        int pendingCount = 0;
+        for (int i = bidders - 1; i >= 0; i--) {
+            int entry = previous[i];
+            if (entry >= 0) {
+                int held = problem.column(entry);
+                double heldValue = problem.benefit(entry) - prices[held];
+                if (owner[held] < 0 && heldValue >= 0 && heldValue >= bestValue(problem, i) - epsilon) {
+                    owner[held] = i;
+                    assignment[i] = held;
+                    continue;
+                }
+            }
+            pending[pendingCount++] = i;
+        }
+        runBids(problem, assignment, pendingCount, epsilon);
+    }
+
+    /**
+     * Get the best value a bidder can get at the current prices; staying unassigned is worth 0.
+     */
+    private double bestValue(SparseBenefits problem, int bidder) {
+        double best = 0;
+        for (int entry = problem.rowStart(bidder); entry < problem.rowEnd(bidder); entry++) {
+            best = Math.max(best, problem.benefit(entry) - prices[problem.column(entry)]);
+        }
+        return best;
+    }
+
+    /**
+     * Zero the prices of left-over objects and let every bidder that now prefers
+     * another choice bid again.
+     *
+     * @return true if any price had to be zeroed
+     */
+    private boolean repair(SparseBenefits problem, int[] assignment, double epsilon) {
+        boolean changed = false;
+        for (int j = 0; j < problem.getObjectCount(); j++) {
+            if (owner[j] < 0 && prices[j] > 0) {
+                prices[j] = 0;
+                changed = true;
+            }
+        }
+        if (!changed) {
+            return false;
+        }
+
+        // Find the bidders whose choice is no longer within epsilon of their best
+        int pendingCount = 0;
+        for (int i = 0; i < problem.getBidderCount(); i++) {
+            int held = assignment[i];
+            double heldValue = 0;
+            if (held >= 0) {
+                for (int entry = problem.rowStart(i); entry < problem.rowEnd(i); entry++) {
+                    if (problem.column(entry) == held) {
+                        heldValue = problem.benefit(entry) - prices[held];
+                        break;
+                    }
+                }
+            }
+            if (heldValue < bestValue(problem, i) - epsilon) {
+                if (held >= 0) {
+                    owner[held] = -1;
+                    assignment[i] = -1;
+                }
+                pending[pendingCount++] = i;
+            }
+        }
+        runBids(problem, assignment, pendingCount, epsilon);
+        return true;
+    }
+
+    /**
+     * Let the pending bidders bid until none is left.
+     */
+    private void runBids(SparseBenefits problem, int[] assignment, int pendingCount, double epsilon) {
+        while (pendingCount > 0) {
+            int bidder = pending[--pendingCount];
+
+            // Find the best and second best value; staying unassigned is worth 0
+            int best = -1;
+            double bestValue = 0;
+            double secondValue = 0;
+            for (int entry = problem.rowStart(bidder); entry < problem.rowEnd(bidder); entry++) {
+                int j = problem.column(entry);
+                double value = problem.benefit(entry) - prices[j];
+                if (value > bestValue) {
+                    secondValue = bestValue;
+                    bestValue = value;
+                    best = j;
+                } else if (value > secondValue) {
+                    secondValue = value;
+                }
+            }
+
+            if (best < 0) {
+                continue; // Nothing is worth its price; the bidder stays unassigned
+            }
+
+            // Bid, outbidding the current owner if there is one
+            prices[best] += bestValue - secondValue + epsilon;
+            int previousOwner = owner[best];
+            if (previousOwner >= 0) {
+                assignment[previousOwner] = -1;
+                pending[pendingCount++] = previousOwner;
+            }
+            owner[best] = bidder;
+            assignment[bidder] = best;
+            bidCount++;
+        }
+    }
+}
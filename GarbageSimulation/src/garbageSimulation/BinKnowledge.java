@@ -0,0 +1,312 @@
+package garbageSimulation;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import repast.simphony.space.continuous.NdPoint;
+
+/**
+ * What a vehicle knows about bins: the last reported state of each bin and
+ * when it last emptied a bin itself.
+ *
+ * Reports are kept in the order they expire in, which is the order they were
+ * last updated in, so expiring them only looks at the oldest ones instead of
+ * scanning everything. A new report of a known bin updates its entry in place
+ * and moves it to the end of that order, so steady reporting allocates nothing. The same holds for the recently emptied bins. When the
+ * store overflows, the reports with the lowest target score as seen from the
+ * vehicle's current position make room, so a vehicle that hears from thousands
+ * of bins keeps a bounded amount of them and still keeps the ones it would pick.
+ * The store may run an eighth over its capacity before it is trimmed back in one
+ * pass, so the ranking isn't redone for every new report.
+ */
+final class BinKnowledge {
+    private final int capacity;
+    private final int slack;  // Reports allowed over capacity before trimming
+    private final long lifetime;
+    private final long emptyCooldown;
+    private final ScalarDistanceKernel distances;  // Wrapped distances for ranking on eviction
+
+    // Reports by bin ID, and linked in expiry order
+    private final HashMap<Integer, BinInfo> reports = new HashMap<>();
+    private BinInfo oldest = null;
+    private BinInfo newest = null;
+    private final Collection<BinInfo> view = new ReportView();
+
+    // Reused buffers for trimming
+    private double[] scores = new double[0];
+    private double[] sortedScores = new double[0];
+
+    // Times bins were emptied by this vehicle, oldest first
+    private final LinkedHashMap<Integer, Long> emptied = new LinkedHashMap<>();
+
+    /**
+     * Information about a bin as last reported to the vehicle.
+     * Updated in place by later reports; only the owning store writes it.
+     */
+    static final class BinInfo {
+        final int id;
+        final double x;
+        final double y;
+        double fillLevel;
+        double capacity;
+        String areaType;
+        boolean isUrgent;
+        long lastUpdated;
+
+        // Part of Vehicle.targetScore() that doesn't depend on distance
+        double priority;
+
+        // Neighbors in the store's expiry order
+        private BinInfo older;
+        private BinInfo newer;
+
+        private BinInfo(int id, double x, double y) {
+            this.id = id;
+            this.x = x;
+            this.y = y;
+        }
+
+        private void update(double fillLevel, double capacity, String areaType, boolean isUrgent) {
+            this.fillLevel = fillLevel;
+            this.capacity = capacity;
+            this.areaType = areaType;
+            this.isUrgent = isUrgent;
+            this.lastUpdated = SimulationClock.now();
+            this.priority = (0.7 + 0.3 * fillLevel / capacity) * (isUrgent ? 1.5 : 1.0);
+        }
+
+        double getFillPercentage() {
+            return (fillLevel / capacity) * 100;
+        }
+
+        NdPoint getLocation() {
+            return new NdPoint(x, y);
+        }
+
+        @Override
+        public String toString() {
+            return "Bin " + id + " (" + areaType + "): " + String.format("%.1f", getFillPercentage()) + "% full";
+        }
+    }
+
+    /**
+     * Create a new store.
+     *
+     * @param capacity Most bin reports kept
+     * @param lifetime Time in milliseconds after which a report is stale
+     * @param emptyCooldown Time in milliseconds a bin counts as recently emptied
+     * @param width Width of the space
+     * @param height Height of the space
+     */
+    BinKnowledge(int capacity, long lifetime, long emptyCooldown, double width, double height) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.slack = Math.max(1, capacity / 8);
+        this.lifetime = lifetime;
+        this.emptyCooldown = emptyCooldown;
+        this.distances = new ScalarDistanceKernel(width, height);
+    }
+
+    /**
+     * Store a report of a bin, updating the bin's entry if it has one.
+     * If the store overflows, it is trimmed back to its capacity by dropping the
+     * other reports with the lowest target score from the vehicle's position
+     * (the oldest first on a tie), so the newest report is always kept.
+     *
+     * @param binId ID of the bin
+     * @param binX X coordinate of the bin
+     * @param binY Y coordinate of the bin
+     * @param fillLevel Reported fill level
+     * @param binCapacity Capacity of the bin
+     * @param areaType Area type of the bin
+     * @param isUrgent Whether the bin reported itself urgent
+     * @param x X coordinate of the vehicle
+     * @param y Y coordinate of the vehicle
+     * @return The bin's entry
+     */
+    BinInfo report(int binId, double binX, double binY, double fillLevel, double binCapacity, 
+                   String areaType, boolean isUrgent, double x, double y) {
+        BinInfo info = reports.get(binId);
+        if (info == null) {
+            info = new BinInfo(binId, binX, binY);
+            reports.put(binId, info);
+        } else {
+            unlink(info);
+        }
+        info.update(fillLevel, binCapacity, areaType, isUrgent);
+        append(info);
+        if (reports.size() > capacity + slack) {
+            trim(info, x, y);
+        }
+        return info;
+    }
+
+    private void append(BinInfo info) {
+        info.older = newest;
+        info.newer = null;
+        if (newest != null) {
+            newest.newer = info;
+        } else {
+            oldest = info;
+        }
+        newest = info;
+    }
+
+    private void unlink(BinInfo info) {
+        if (info.older != null) {
+            info.older.newer = info.newer;
+        } else {
+            oldest = info.newer;
+        }
+        if (info.newer != null) {
+            info.newer.older = info.older;
+        } else {
+            newest = info.older;
+        }
+        info.older = null;
+        info.newer = null;
+    }
+
+    private void remove(BinInfo info) {
+        unlink(info);
+        reports.remove(info.id);
+    }
+
+    /**
+     * Drop the reports with the lowest target scores until the store is at its capacity.
+     */
+    private void trim(BinInfo newest, double x, double y) {
+        int size = reports.size();
+        if (scores.length < size) {
+            scores = new double[size];
+            sortedScores = new double[size];
+        }
+        int i = 0;
+        for (BinInfo report = oldest; report != null; report = report.newer) {
+            scores[i++] = (report == newest) ? Double.POSITIVE_INFINITY 
+                : 1000.0 / (distances.distanceSquared(x, y, report.x, report.y) + 1.0) * report.priority;
+        }
+
+        // Everything below the cutoff goes, and as many at the cutoff as needed, oldest first
+        int toDrop = size - capacity;
+        System.arraycopy(scores, 0, sortedScores, 0, size);
+        Arrays.sort(sortedScores, 0, size);
+        double cutoff = sortedScores[toDrop - 1];
+        int belowCutoff = 0;
+        while (belowCutoff < toDrop && sortedScores[belowCutoff] < cutoff) {
+            belowCutoff++;
+        }
+        int atCutoff = toDrop - belowCutoff;
+
+        i = 0;
+        BinInfo report = oldest;
+        while (report != null) {
+            BinInfo next = report.newer;
+            double score = scores[i++];
+            if (score < cutoff) {
+                remove(report);
+            } else if (score == cutoff && atCutoff > 0) {
+                remove(report);
+                atCutoff--;
+            }
+            report = next;
+        }
+    }
+
+    /**
+     * Get the report of a bin, or null if there is none.
+     */
+    BinInfo get(int binId) {
+        return reports.get(binId);
+    }
+
+    /**
+     * Get all reports, oldest first, as a read-only view.
+     */
+    Collection<BinInfo> values() {
+        return view;
+    }
+
+    /**
+     * Read-only view of the reports that walks the expiry order.
+     */
+    private final class ReportView extends AbstractCollection<BinInfo> {
+        @Override
+        public Iterator<BinInfo> iterator() {
+            return new Iterator<BinInfo>() {
+                private BinInfo next = oldest;
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public BinInfo next() {
+                    if (next == null) {
+                        throw new NoSuchElementException();
+                    }
+                    BinInfo current = next;
+                    next = current.newer;
+                    return current;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return reports.size();
+        }
+    }
+
+    int size() {
+        return reports.size();
+    }
+
+    boolean isStale(BinInfo info, long now) {
+        return now - info.lastUpdated > lifetime;
+    }
+
+    /**
+     * Record that this vehicle emptied a bin.
+     */
+    void markEmptied(int binId, long now) {
+        emptied.remove(binId);
+        emptied.put(binId, now);
+    }
+
+    /**
+     * Check if this vehicle emptied a bin within the empty cooldown.
+     */
+    boolean isRecentlyEmptied(int binId, long now) {
+        Long time = emptied.get(binId);
+        return time != null && now - time < emptyCooldown;
+    }
+
+    /**
+     * Drop stale reports and emptied bins past the cooldown.
+     * Stops at the first entry that is still current, so the cost is the number of entries dropped.
+     */
+    void expire(long now) {
+        while (oldest != null && isStale(oldest, now)) {
+            remove(oldest);
+        }
+
+        if (!emptied.isEmpty()) {
+            Iterator<Map.Entry<Integer, Long>> earliest = emptied.entrySet().iterator();
+            while (earliest.hasNext()) {
+                if (now - earliest.next().getValue() <= emptyCooldown) {
+                    break;
+                }
+                earliest.remove();
+            }
+        }
+    }
+}
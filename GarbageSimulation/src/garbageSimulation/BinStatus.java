@@ -0,0 +1,27 @@
+package garbageSimulation;
+
+/**
+ * Status of a garbage bin as seen by a vehicle, whether it arrived as a
+ * BinStatusMessage or was copied into a slot of the vehicle's mailbox.
+ */
+public interface BinStatus {
+    int getSenderId();
+
+    int getBinId();
+
+    double getX();
+
+    double getY();
+
+    double getFillLevel();
+
+    double getCapacity();
+
+    String getAreaType();
+
+    boolean isUrgent();
+
+    default double getFillPercentage() {
+        return (getFillLevel() / getCapacity()) * 100;
+    }
+}
@@ -0,0 +1,80 @@
+package garbageSimulation;
+
+/**
+ * Message describing the status of a garbage bin.
+ * Used both for broadcasts by the bin itself and for information relayed between vehicles.
+ */
+public class BinStatusMessage extends Message implements BinStatus {
+    private final int binId;
+    private final double x;
+    private final double y;
+    private final double fillLevel;
+    private final double capacity;
+    private final String areaType;
+    private final boolean urgent;
+
+    /**
+     * Create a new bin status message.
+     *
+     * @param senderId ID of the sender agent
+     * @param type BIN_BROADCAST or BIN_INFO
+     * @param binId ID of the bin described
+     * @param x X coordinate of the bin
+     * @param y Y coordinate of the bin
+     * @param fillLevel Current amount of garbage in the bin
+     * @param capacity Maximum capacity of the bin
+     * @param areaType Area type of the bin (one of the GarbageBin.AREA_* constants)
+     * @param urgent Whether the bin is urgently full
+     */
+    public BinStatusMessage(int senderId, MessageType type, int binId, double x, double y,
+                            double fillLevel, double capacity, String areaType, boolean urgent) {
+        super(senderId, type);
+        this.binId = binId;
+        this.x = x;
+        this.y = y;
+        this.fillLevel = fillLevel;
+        this.capacity = capacity;
+        this.areaType = areaType;
+        this.urgent = urgent;
+    }
+
+    @Override
+    public int getBinId() {
+        return binId;
+    }
+
+    @Override
+    public double getX() {
+        return x;
+    }
+
+    @Override
+    public double getY() {
+        return y;
+    }
+
+    @Override
+    public double getFillLevel() {
+        return fillLevel;
+    }
+
+    @Override
+    public double getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public String getAreaType() {
+        return areaType;
+    }
+
+    @Override
+    public boolean isUrgent() {
+        return urgent;
+    }
+
+    @Override
+    public double getFillPercentage() {
+        return (fillLevel / capacity) * 100;
+    }
+}
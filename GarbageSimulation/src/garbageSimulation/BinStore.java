@@ -0,0 +1,255 @@
+package garbageSimulation;
+
+import java.util.Arrays;
+import repast.simphony.random.RandomHelper;
+
+/**
+ * Columnar store of the changing state of many bins.
+ *
+ * Fill levels, capacities, area codes, service flags and fill rate forecasts are
+ * kept in primitive arrays indexed by a slot per bin, instead of in the fields of
+ * each GarbageBin. Bins attached to the store read and write their state here, and
+ * fillAll() adds garbage to every bin in one branch-free loop over the arrays,
+ * then finds the threshold crossings in a separate pass of comparisons only.
+ */
+public class BinStore {
+    // Area codes
+    static final byte AREA_OTHER = 0;
+    static final byte AREA_COMMERCIAL = 1;
+    static final byte AREA_RESIDENTIAL = 2;
+    static final byte AREA_LOW_DENSITY = 3;
+
+    private final double fullnessThreshold;
+    private final double smoothing;
+
+    private int size = 0;
+    private GarbageBin[] bins;
+
+    // Bin state
+    private double[] fill;
+    private double[] capacity;
+    private byte[] areaCode;
+    private boolean[] serviced;
+
+    // Garbage added per fill is rateBase * (rateOffset + rateSpan * uniform random number),
+    // the same expression as GarbageBin.addGarbage() so that both round alike
+    private double[] rateBase;
+    private double[] rateOffset;
+    private double[] rateSpan;
+
+    // Fill rate forecast, updated as in FillForecaster
+    private double[] forecastRate;
+    private double[] forecastVariance;
+    private long[] lastObserved;
+    private boolean[] hasRate;
+
+    // Buffers of the fill pass
+    private double[] before;
+    private double[] added;
+    private int[] crossings;
+
+    /**
+     * Create a new bin store.
+     *
+     * @param expectedBins Number of bins expected, to size the arrays
+     * @param fullnessThreshold Fill fraction at which a bin crosses its threshold
+     * @param smoothing Weight of the newest observation in the fill rate forecast
+     */
+    public BinStore(int expectedBins, double fullnessThreshold, double smoothing) {
+        this.fullnessThreshold = fullnessThreshold;
+        this.smoothing = smoothing;
+        allocate(Math.max(16, expectedBins));
+    }
+
+    /**
+     * Add a bin to the store.
+     *
+     * @param bin The bin
+     * @param fillLevel Current fill level
+     * @param binCapacity Capacity of the bin
+     * @param areaType Area type (one of the GarbageBin.AREA_* constants)
+     * @param isServiced Whether the bin is being serviced
+     * @param time Current time in milliseconds, when forecasting starts
+     * @return Slot of the bin
+     */
+    int add(GarbageBin bin, double fillLevel, double binCapacity, String areaType, boolean isServiced, long time) {
+        if (size == bins.length) {
+            allocate(size * 2);
+        }
+        int slot = size++;
+        bins[slot] = bin;
+        fill[slot] = fillLevel;
+        capacity[slot] = binCapacity;
+        areaCode[slot] = areaCode(areaType);
+        serviced[slot] = isServiced;
+        lastObserved[slot] = time;
+
+        // Same fill rates as GarbageBin.addGarbage()
+        switch (areaCode[slot]) {
+            case AREA_COMMERCIAL:
+                setRate(slot, binCapacity * 0.10);
+                break;
+            case AREA_RESIDENTIAL:
+                setRate(slot, binCapacity * 0.05);
+                break;
+            case AREA_LOW_DENSITY:
+                setRate(slot, binCapacity * 0.02);
+                break;
+            default:
+                rateBase[slot] = binCapacity * 0.05;
+                rateOffset[slot] = 0;
+                rateSpan[slot] = 1;
+                break;
+        }
+        return slot;
+    }
+
+    /**
+     * Add garbage to every bin that isn't being serviced and update the fill rate forecasts.
+     * Scheduled by the builder in place of each bin's addGarbage() when the store is used.
+     */
+    public void fillAll() {
+        long now = SimulationClock.now();
+        int n = size;
+
+        // Draw the amounts up front so the fill loop makes no calls; serviced bins
+        // get nothing and draw no random number, as in GarbageBin.addGarbage()
+        for (int i = 0; i < n; i++) {
+            added[i] = serviced[i] ? 0.0 : rateBase[i] * (rateOffset[i] + RandomHelper.nextDouble() * rateSpan[i]);
+        }
+
+        // Fill pass: full bins are capped; no branches, so the loop can be vectorized
+        for (int i = 0; i < n; i++) {
+            before[i] = fill[i];
+            fill[i] = Math.min(capacity[i], fill[i] + added[i]);
+        }
+
+        // Crossing pass: compare the levels before and after
+        int crossingCount = 0;
+        for (int i = 0; i < n; i++) {
+            if (before[i] / capacity[i] < fullnessThreshold && fill[i] / capacity[i] >= fullnessThreshold) {
+                crossings[crossingCount++] = i;
+            }
+        }
+
+        // Forecast pass: learn the rate from the garbage added, as FillForecaster.observe() does
+        for (int i = 0; i < n; i++) {
+            long elapsed = now - lastObserved[i];
+            if (serviced[i]) {
+                lastObserved[i] = now;  // Restart the interval, as FillForecaster.skip() does
+                continue;
+            }
+            if (elapsed <= 0) {
+                continue;
+            }
+            lastObserved[i] = now;
+
+            double observed = added[i] / elapsed;
+            if (!hasRate[i]) {
+                forecastRate[i] = observed;
+                hasRate[i] = true;
+                continue;
+            }
+            double difference = observed - forecastRate[i];
+            double increment = smoothing * difference;
+            forecastRate[i] += increment;
+            forecastVariance[i] = (1 - smoothing) * (forecastVariance[i] + difference * increment);
+        }
+
+        for (int c = 0; c < crossingCount; c++) {
+            bins[crossings[c]].thresholdCrossed();
+        }
+    }
+
+    /**
+     * Predict when a bin crosses the fullness threshold, as FillForecaster.predictCrossingTime() does.
+     *
+     * @param slot Slot of the bin
+     * @param now Current time in milliseconds
+     * @param deviations Standard deviations added to the forecast rate
+     * @return Predicted time in milliseconds, or Long.MAX_VALUE if no crossing is expected
+     */
+    long predictCrossingTime(int slot, long now, double deviations) {
+        return FillForecaster.crossingTime(forecastRate[slot], forecastVariance[slot], hasRate[slot],
+                                           fill[slot], capacity[slot] * fullnessThreshold, now, deviations);
+    }
+
+    double getFillLevel(int slot) {
+        return fill[slot];
+    }
+
+    void setFillLevel(int slot, double level) {
+        fill[slot] = level;
+    }
+
+    boolean isServiced(int slot) {
+        return serviced[slot];
+    }
+
+    void setServiced(int slot, boolean isServiced) {
+        serviced[slot] = isServiced;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void setRate(int slot, double baseRate) {
+        // Between 70% and 130% of the base rate
+        rateBase[slot] = baseRate;
+        rateOffset[slot] = 0.7;
+        rateSpan[slot] = 0.6;
+    }
+
+    private static byte areaCode(String areaType) {
+        switch (areaType) {
+            case GarbageBin.AREA_COMMERCIAL:
+                return AREA_COMMERCIAL;
+            case GarbageBin.AREA_RESIDENTIAL:
+                return AREA_RESIDENTIAL;
+            case GarbageBin.AREA_LOW_DENSITY:
+                return AREA_LOW_DENSITY;
+            default:
+                return AREA_OTHER;
+        }
+    }
+
+    /**
+     * Allocate the arrays, keeping the current contents.
+     */
+    private void allocate(int length) {
+        if (bins == null) {
+            bins = new GarbageBin[length];
+            fill = new double[length];
+            capacity = new double[length];
+            areaCode = new byte[length];
+            serviced = new boolean[length];
+            rateBase = new double[length];
+            rateOffset = new double[length];
+            rateSpan = new double[length];
+            forecastRate = new double[length];
+            forecastVariance = new double[length];
+            lastObserved = new long[length];
+            hasRate = new boolean[length];
+            before = new double[length];
+            added = new double[length];
+            crossings = new int[length];
+            return;
+        }
+        bins = Arrays.copyOf(bins, length);
+        fill = Arrays.copyOf(fill, length);
+        capacity = Arrays.copyOf(capacity, length);
+        areaCode = Arrays.copyOf(areaCode, length);
+        serviced = Arrays.copyOf(serviced, length);
+        rateBase = Arrays.copyOf(rateBase, length);
+        rateOffset = Arrays.copyOf(rateOffset, length);
+        rateSpan = Arrays.copyOf(rateSpan, length);
+        forecastRate = Arrays.copyOf(forecastRate, length);
+        forecastVariance = Arrays.copyOf(forecastVariance, length);
+        lastObserved = Arrays.copyOf(lastObserved, length);
+        hasRate = Arrays.copyOf(hasRate, length);
+        before = new double[length];
+        added = new double[length];
+        crossings = new int[length];
+    }
+}
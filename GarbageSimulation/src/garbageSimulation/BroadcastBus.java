@@ -0,0 +1,218 @@
+package garbageSimulation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publish/subscribe channels for bin broadcasts, one per cell of a uniform grid
+ * over the toroidal space.
+ *
+ * Bins publish their status to the cell they are in. Each vehicle is subscribed
+ * to every cell that may hold a bin within its receive radius, and its
+ * subscriptions only change when it moves into another cell. Once per tick
+ * deliver() sends each subscriber one digest of everything published to a cell
+ * since the last delivery. The number of messages therefore follows cells times
+ * subscribers instead of bins times vehicles. Recipients filter the statuses in
+ * a digest by the actual broadcast range of each bin.
+ *
+ * A status is only published if some subscriber is within its broadcast range,
+ * judged by the positions the subscribers last reported, so a bin counts the
+ * same recipients as when it sends to the vehicles in range directly.
+ */
+public class BroadcastBus {
+    private final double width;
+    private final double height;
+    private final int columns;
+    private final int rows;
+    private final double cellWidth;
+    private final double cellHeight;
+
+    // Cells a vehicle subscribes to around its own, in each direction
+    private final int columnReach;
+    private final int rowReach;
+
+    private final Cell[] cells;
+
+    // Cells published to since the last delivery, in order of first publication
+    private final List<Cell> pending = new ArrayList<>();
+
+    // Cell each vehicle subscribed from
+    private final Map<Vehicle, Subscription> subscriptions = new IdentityHashMap<>();
+
+    private long digestsDelivered = 0;
+
+    /**
+     * Channel of one cell.
+     */
+    private static final class Cell {
+        final int index;
+        final List<Subscription> subscribers = new ArrayList<>();
+        List<BinStatusMessage> published = new ArrayList<>();
+
+        Cell(int index) {
+            this.index = index;
+        }
+    }
+
+    /**
+     * Position of a vehicle and the cells it is subscribed to.
+     */
+    private static final class Subscription {
+        final Vehicle vehicle;
+        double x;
+        double y;
+        int cell = -1;
+        final List<Cell> cells = new ArrayList<>();
+
+        Subscription(Vehicle vehicle) {
+            this.vehicle = vehicle;
+        }
+    }
+
+    /**
+     * Create a new bus.
+     *
+     * @param width Width of the space
+     * @param height Height of the space
+     * @param cellSize Minimum edge length of a cell
+     * @param receiveRadius Distance up to which vehicles must receive broadcasts (the widest broadcast range)
+     */
+    public BroadcastBus(double width, double height, double cellSize, double receiveRadius) {
+        this.width = width;
+        this.height = height;
+        this.columns = Math.max(1, (int) Math.floor(width / cellSize));
+        this.rows = Math.max(1, (int) Math.floor(height / cellSize));
+        this.cellWidth = width / columns;
+        this.cellHeight = height / rows;
+
+        // A bin within the radius of any point in a cell is at most this many cells away
+        this.columnReach = (int) Math.ceil(receiveRadius / cellWidth);
+        this.rowReach = (int) Math.ceil(receiveRadius / cellHeight);
+
+        this.cells = new Cell[columns * rows];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = new Cell(i);
+        }
+    }
+
+    /**
+     * Record a vehicle's position, moving its subscriptions if it entered another cell.
+     *
+     * @param vehicle Vehicle that moved
+     * @param x New X coordinate
+     * @param y New Y coordinate
+     */
+    public void move(Vehicle vehicle, double x, double y) {
+        int cell = cellIndex(x, y);
+        Subscription subscription = subscriptions.get(vehicle);
+        if (subscription == null) {
+            subscription = new Subscription(vehicle);
+            subscriptions.put(vehicle, subscription);
+        }
+        subscription.x = x;
+        subscription.y = y;
+        if (subscription.cell == cell) {
+            return;
+        }
+
+        for (Cell old : subscription.cells) {
+            old.subscribers.remove(subscription);
+        }
+        subscription.cells.clear();
+        subscription.cell = cell;
+
+        // A range spanning the whole torus must not visit a cell twice
+        int column = cell % columns;
+        int row = cell / columns;
+        int firstColumn = column - columnReach;
+        int lastColumn = column + columnReach;
+        int firstRow = row - rowReach;
+        int lastRow = row + rowReach;
+        if (lastColumn - firstColumn + 1 >= columns) {
+            firstColumn = 0;
+            lastColumn = columns - 1;
+        }
+        if (lastRow - firstRow + 1 >= rows) {
+            firstRow = 0;
+            lastRow = rows - 1;
+        }
+
+        for (int r = firstRow; r <= lastRow; r++) {
+            int wrappedRow = Math.floorMod(r, rows);
+            for (int c = firstColumn; c <= lastColumn; c++) {
+                Cell covered = cells[wrappedRow * columns + Math.floorMod(c, columns)];
+                covered.subscribers.add(subscription);
+                subscription.cells.add(covered);
+            }
+        }
+    }
+
+    /**
+     * Publish a bin status to the cell the bin is in.
+     * Nothing is kept if no subscriber of the cell is within the broadcast range.
+     *
+     * @param status Status of the bin
+     * @param range Broadcast range of the bin
+     * @return Number of subscribers within the broadcast range
+     */
+    public int publish(BinStatusMessage status, double range) {
+        Cell cell = cells[cellIndex(status.getX(), status.getY())];
+        double rangeSquared = range * range;
+        int recipients = 0;
+        for (int i = 0; i < cell.subscribers.size(); i++) {
+            Subscription subscriber = cell.subscribers.get(i);
+            if (wrappedDistanceSquared(status.getX(), status.getY(), subscriber.x, subscriber.y) <= rangeSquared) {
+                recipients++;
+            }
+        }
+        if (recipients > 0) {
+            if (cell.published.isEmpty()) {
+                pending.add(cell);
+            }
+            cell.published.add(status);
+        }
+        return recipients;
+    }
+
+    /**
+     * Send one digest per cell published to since the last delivery to each of
+     * the cell's subscribers. Scheduled by the builder at the start of every tick.
+     */
+    public void deliver() {
+        for (int i = 0; i < pending.size(); i++) {
+            Cell cell = pending.get(i);
+            CellDigestMessage digest = new CellDigestMessage(cell.index, Collections.unmodifiableList(cell.published));
+            cell.published = new ArrayList<>();
+
+            for (int j = 0; j < cell.subscribers.size(); j++) {
+                cell.subscribers.get(j).vehicle.receiveMessage(digest);
+            }
+            digestsDelivered += cell.subscribers.size();
+        }
+        pending.clear();
+    }
+
+    /**
+     * Get the number of digests delivered so far.
+     */
+    public long getDigestsDelivered() {
+        return digestsDelivered;
+    }
+
+    private double wrappedDistanceSquared(double x1, double y1, double x2, double y2) {
+        double dx = Math.abs(x1 - x2);
+        double dy = Math.abs(y1 - y2);
+        if (dx > width / 2) dx = width - dx;
+        if (dy > height / 2) dy = height - dy;
+        return dx * dx + dy * dy;
+    }
+
+    private int cellIndex(double x, double y) {
+        int column = Math.floorMod((int) Math.floor(x / cellWidth), columns);
+        int row = Math.floorMod((int) Math.floor(y / cellHeight), rows);
+        return row * columns + column;
+    }
+}
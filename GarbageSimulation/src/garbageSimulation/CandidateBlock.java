@@ -0,0 +1,118 @@
+package garbageSimulation;
+
+import java.util.Arrays;
+import garbageSimulation.BinKnowledge.BinInfo;
+
+/**
+ * Reusable block of candidate bins, laid out as primitive arrays so that a
+ * DistanceKernel scores all of them in one pass. Each vehicle owns one, so
+ * vehicles may pick their targets in parallel.
+ *
+ * After scoring, the bins are handed out best first from a heap ordered by
+ * score, so a caller that still has to check each bin against the coordinator
+ * only checks as many as it rejects plus one, not the whole block.
+ */
+final class CandidateBlock {
+    private final DistanceKernel kernel;
+    private BinInfo[] bins = new BinInfo[16];
+    private double[] xs = new double[16];
+    private double[] ys = new double[16];
+    private double[] priorities = new double[16];
+    private double[] scores = new double[16];
+    private int[] heap = new int[16];  // Indexes of the bins not handed out yet, best on top
+    private int size = 0;
+    private int heapSize = 0;
+    private double bestScore = Double.NEGATIVE_INFINITY;
+    
+    CandidateBlock(DistanceKernel kernel) {
+        this.kernel = kernel;
+    }
+    
+    void clear() {
+        Arrays.fill(bins, 0, size, null);
+        size = 0;
+        heapSize = 0;
+    }
+    
+    void add(BinInfo bin) {
+        if (size == bins.length) {
+            int capacity = size * 2;
+            bins = Arrays.copyOf(bins, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            priorities = Arrays.copyOf(priorities, capacity);
+            scores = Arrays.copyOf(scores, capacity);
+            heap = new int[capacity];
+        }
+        bins[size] = bin;
+        xs[size] = bin.x;
+        ys[size] = bin.y;
+        priorities[size] = bin.priority;
+        size++;
+    }
+    
+    /**
+     * Score every bin in the block from a position and order them for next().
+     */
+    void rank(double x, double y) {
+        kernel.targetScores(x, y, xs, ys, priorities, size, scores);
+        for (int i = 0; i < size; i++) {
+            heap[i] = i;
+        }
+        heapSize = size;
+        for (int i = heapSize / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+        bestScore = Double.NEGATIVE_INFINITY;
+    }
+    
+    /**
+     * Hand out the best bin not handed out since the last rank(), with ties
+     * going to the lowest bin ID.
+     * 
+     * @return The bin, or null if every bin has been handed out
+     */
+    BinInfo next() {
+        if (heapSize == 0) {
+            return null;
+        }
+        int best = heap[0];
+        heap[0] = heap[--heapSize];
+        siftDown(0);
+        bestScore = scores[best];
+        return bins[best];
+    }
+    
+    /**
+     * Check whether bin i goes before bin j: higher score first, then lower ID.
+     */
+    private boolean before(int i, int j) {
+        return scores[i] > scores[j] || (scores[i] == scores[j] && bins[i].id < bins[j].id);
+    }
+    
+    private void siftDown(int slot) {
+        int index = heap[slot];
+        while (true) {
+            int child = 2 * slot + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && before(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!before(heap[child], index)) {
+                break;
+            }
+            heap[slot] = heap[child];
+            slot = child;
+        }
+        heap[slot] = index;
+    }
+    
+    /**
+     * Get the score of the bin last handed out by next().
+     */
+    double getBestScore() {
+        return bestScore;
+    }
+}
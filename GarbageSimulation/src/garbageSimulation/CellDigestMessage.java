@@ -0,0 +1,26 @@
+package garbageSimulation;
+
+import java.util.List;
+
+/**
+ * Message bundling the bin statuses published to one cell of a BroadcastBus
+ * since its last delivery. One digest is shared by all subscribers of the cell.
+ */
+public class CellDigestMessage extends Message {
+    private final List<BinStatusMessage> statuses;
+
+    /**
+     * Create a new digest.
+     *
+     * @param cell Index of the cell, used as the sender ID
+     * @param statuses Read-only list of the statuses published to the cell, in order of publication
+     */
+    public CellDigestMessage(int cell, List<BinStatusMessage> statuses) {
+        super(cell, MessageType.CELL_DIGEST);
+        this.statuses = statuses;
+    }
+
+    public List<BinStatusMessage> getStatuses() {
+        return statuses;
+    }
+}
@@ -0,0 +1,63 @@
+package garbageSimulation;
+
+/**
+ * Distances and target scores for a whole block of points on the torus at once,
+ * computed over primitive coordinate arrays instead of one NdPoint pair at a time.
+ * 
+ * The vectorized implementation in src-vector needs the incubating Vector API
+ * (--add-modules jdk.incubator.vector) and is only compiled by the benchmarks
+ * build. The Repast project compiles src alone, so model runs always use the
+ * scalar implementation.
+ * 
+ * Scores equal Vehicle.targetScore() only up to rounding: the squared distance
+ * isn't taken through a square root and back, and the fill and urgency factors
+ * are multiplied into one priority beforehand. Two bins that tie in one scoring
+ * may therefore not tie in the other, and the lowest-ID tie-break can pick a
+ * different bin than scoring pair by pair did.
+ */
+interface DistanceKernel {
+    
+    /**
+     * Compute the squared wrapped distances from one point to a block of points.
+     * 
+     * @param x X coordinate of the point
+     * @param y Y coordinate of the point
+     * @param xs X coordinates of the block
+     * @param ys Y coordinates of the block
+     * @param count Number of points in the block
+     * @param result Receives the squared distances
+     */
+    void distancesSquared(double x, double y, double[] xs, double[] ys, int count, double[] result);
+    
+    /**
+     * Compute the target scores of a block of bins as seen from one point: the
+     * inverse square distance 1000 / (d * d + 1) times the part of Vehicle.targetScore()
+     * that doesn't depend on distance.
+     * 
+     * @param x X coordinate of the point
+     * @param y Y coordinate of the point
+     * @param xs X coordinates of the bins
+     * @param ys Y coordinates of the bins
+     * @param priorities Fill and urgency factors of the bins
+     * @param count Number of bins in the block
+     * @param result Receives the scores
+     */
+    void targetScores(double x, double y, double[] xs, double[] ys, double[] priorities, int count, double[] result);
+    
+    /**
+     * Create the fastest kernel available for a space.
+     * 
+     * @param width Width of the space
+     * @param height Height of the space
+     */
+    static DistanceKernel create(double width, double height) {
+        try {
+            return (DistanceKernel) Class.forName("garbageSimulation.VectorDistanceKernel")
+                                         .getConstructor(double.class, double.class)
+                                         .newInstance(width, height);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Not compiled in, or the Vector API module isn't available
+            return new ScalarDistanceKernel(width, height);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package garbageSimulation;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Level-gated event log for the simulation.
+ *
+ * Events are written as String.format templates plus arguments. When an event's
+ * level is disabled nothing is formatted or queued; when it is enabled the
+ * template and arguments are put on a bounded ring buffer and formatted and
+ * printed by a background thread, so agents never wait on the console.
+ * If the buffer is full the event is dropped and counted instead; drops are
+ * reported with the next batch written and at flush(), with the number of
+ * warnings among them.
+ *
+ * Arguments must not change after they are logged; pass primitives, strings
+ * or other immutable values. Callers on hot paths should check isEnabled()
+ * first when building the arguments has a cost of its own.
+ */
+public final class EventLog {
+
+    /**
+     * Severity of an event. OFF disables all logging when used as the threshold.
+     */
+    public enum Level {
+        DEBUG, INFO, WARN, OFF
+    }
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final long FLUSH_TIMEOUT = 5000; // ms
+
+    private static volatile Level threshold = Level.INFO;
+    private static volatile PrintStream out = System.out;
+
+    private static final ArrayBlockingQueue<Event> buffer = new ArrayBlockingQueue<>(BUFFER_SIZE);
+    private static final AtomicLong queued = new AtomicLong();
+    private static final AtomicLong dropped = new AtomicLong();
+    private static final AtomicLong droppedWarnings = new AtomicLong();
+    private static long reportedDrops = 0;
+    private static long reportedWarnings = 0;
+    private static volatile long written = 0;
+    private static Thread writer = null;
+
+    /**
+     * A logged event waiting to be formatted.
+     */
+    private static final class Event {
+        final String template;
+        final Object[] args;
+
+        Event(String template, Object[] args) {
+            this.template = template;
+            this.args = args;
+        }
+    }
+
+    private EventLog() {
+        // Static utility
+    }
+
+    /**
+     * Set the lowest level that is logged.
+     *
+     * @param level New threshold; OFF disables logging
+     */
+    public static void setLevel(Level level) {
+        threshold = level;
+    }
+
+    public static Level getLevel() {
+        return threshold;
+    }
+
+    /**
+     * Set the stream the background thread writes to.
+     *
+     * @param stream Output stream (System.out by default)
+     */
+    public static void setOutput(PrintStream stream) {
+        out = stream;
+    }
+
+    /**
+     * Check whether events of a level are logged.
+     */
+    public static boolean isEnabled(Level level) {
+        return level != Level.OFF && level.ordinal() >= threshold.ordinal();
+    }
+
+    public static boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+
+    public static boolean isInfoEnabled() {
+        return isEnabled(Level.INFO);
+    }
+
+    // Level-specific shortcuts. Fixed arities avoid allocating a varargs array when the level is disabled.
+
+    public static void debug(String template) {
+        if (isEnabled(Level.DEBUG)) enqueue(Level.DEBUG, template, null);
+    }
+
+    public static void debug(String template, Object arg1) {
+        if (isEnabled(Level.DEBUG)) enqueue(Level.DEBUG, template, new Object[] {arg1});
+    }
+
+    public static void debug(String template, Object arg1, Object arg2) {
+        if (isEnabled(Level.DEBUG)) enqueue(Level.DEBUG, template, new Object[] {arg1, arg2});
+    }
+
+    public static void debug(String template, Object arg1, Object arg2, Object arg3) {
+        if (isEnabled(Level.DEBUG)) enqueue(Level.DEBUG, template, new Object[] {arg1, arg2, arg3});
+    }
+
+    public static void debug(String template, Object... args) {
+        if (isEnabled(Level.DEBUG)) enqueue(Level.DEBUG, template, args);
+    }
+
+    public static void info(String template) {
+        if (isEnabled(Level.INFO)) enqueue(Level.INFO, template, null);
+    }
+
+    public static void info(String template, Object arg1) {
+        if (isEnabled(Level.INFO)) enqueue(Level.INFO, template, new Object[] {arg1});
+    }
+
+    public static void info(String template, Object arg1, Object arg2) {
+        if (isEnabled(Level.INFO)) enqueue(Level.INFO, template, new Object[] {arg1, arg2});
+    }
+
+    public static void info(String template, Object arg1, Object arg2, Object arg3) {
+        if (isEnabled(Level.INFO)) enqueue(Level.INFO, template, new Object[] {arg1, arg2, arg3});
+    }
+
+    public static void info(String template, Object... args) {
+        if (isEnabled(Level.INFO)) enqueue(Level.INFO, template, args);
+    }
+
+    public static void warn(String template) {
+        if (isEnabled(Level.WARN)) enqueue(Level.WARN, template, null);
+    }
+
+    public static void warn(String template, Object arg1) {
+        if (isEnabled(Level.WARN)) enqueue(Level.WARN, template, new Object[] {arg1});
+    }
+
+    public static void warn(String template, Object arg1, Object arg2) {
+        if (isEnabled(Level.WARN)) enqueue(Level.WARN, template, new Object[] {arg1, arg2});
+    }
+
+    public static void warn(String template, Object arg1, Object arg2, Object arg3) {
+        if (isEnabled(Level.WARN)) enqueue(Level.WARN, template, new Object[] {arg1, arg2, arg3});
+    }
+
+    public static void warn(String template, Object... args) {
+        if (isEnabled(Level.WARN)) enqueue(Level.WARN, template, args);
+    }
+
+    /**
+     * Wait until every queued event has been written, or the flush timeout has passed.
+     */
+    public static void flush() {
+        long deadline = System.currentTimeMillis() + FLUSH_TIMEOUT;
+        while (written + dropped.get() < queued.get() && System.currentTimeMillis() < deadline) {
+            Thread.yield();
+        }
+        String drops = dropReport();
+        if (drops != null) {
+            out.println(drops);
+        }
+        out.flush();
+    }
+
+    private static void enqueue(Level level, String template, Object[] args) {
+        startWriter();
+        queued.incrementAndGet();
+        if (!buffer.offer(new Event(template, args))) {
+            if (level == Level.WARN) {
+                droppedWarnings.incrementAndGet();
+            }
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Describe the events dropped since the last report, or null if there are none.
+     * Called by both the writer and flush(), so each drop is reported once.
+     */
+    private static synchronized String dropReport() {
+        long drops = dropped.get();
+        long warnings = Math.min(droppedWarnings.get(), drops);
+        if (drops == reportedDrops) {
+            return null;
+        }
+        String report = "EventLog: " + (drops - reportedDrops) + " events dropped (buffer full), "
+                        + (warnings - reportedWarnings) + " of them warnings";
+        reportedDrops = drops;
+        reportedWarnings = warnings;
+        return report;
+    }
+
+    private static synchronized void startWriter() {
+        if (writer != null) {
+            return;
+        }
+        writer = new Thread(EventLog::writeEvents, "EventLog writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(EventLog::flush));
+    }
+
+    /**
+     * Body of the background thread: format and print events in batches.
+     */
+    private static void writeEvents() {
+        List<Event> batch = new ArrayList<>(BUFFER_SIZE);
+        StringBuilder text = new StringBuilder();
+
+        while (true) {
+            try {
+                Event first = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch);
+
+                String drops = dropReport();
+                if (drops != null) {
+                    text.append(drops).append(System.lineSeparator());
+                }
+
+                for (Event event : batch) {
+                    text.append(event.args == null ? event.template : String.format(event.template, event.args))
+                        .append(System.lineSeparator());
+                }
+                out.print(text);
+
+                written += batch.size();
+                batch.clear();
+                text.setLength(0);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // A bad template must not kill the writer
+                out.println("EventLog: failed to format event: " + e);
+                written += batch.size();
+                batch.clear();
+                text.setLength(0);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package garbageSimulation;
+
+/**
+ * Streaming forecast of how fast a bin fills.
+ * Keeps exponentially weighted moving averages of the fill rate and of its
+ * variance, so each bin needs a few fields of state and an update costs a
+ * handful of arithmetic operations, however long the run.
+ */
+public final class FillForecaster {
+    private final double smoothing;  // Weight of the newest observation (0 - 1)
+
+    private double rate = 0;         // Garbage per millisecond
+    private double variance = 0;     // Variance of the rate
+    private long lastTime;
+    private boolean hasRate = false;
+
+    /**
+     * Create a new forecaster.
+     *
+     * @param smoothing Weight of the newest observation, between 0 and 1
+     * @param startTime Time filling starts, in milliseconds
+     */
+    public FillForecaster(double smoothing, long startTime) {
+        this.smoothing = smoothing;
+        this.lastTime = startTime;
+    }
+
+    /**
+     * Record garbage added since the previous observation.
+     *
+     * @param amount Amount of garbage added
+     * @param time Current time in milliseconds
+     */
+    public void observe(double amount, long time) {
+        long elapsed = time - lastTime;
+        if (elapsed <= 0) {
+            return;
+        }
+        lastTime = time;
+
+        double observed = amount / elapsed;
+        if (!hasRate) {
+            rate = observed;
+            hasRate = true;
+            return;
+        }
+
+        // Exponentially weighted mean and variance (West's update)
+        double difference = observed - rate;
+        double increment = smoothing * difference;
+        rate += increment;
+        variance = (1 - smoothing) * (variance + difference * increment);
+    }
+
+    /**
+     * Restart the observation interval without recording anything,
+     * e.g. while the bin is being serviced and doesn't fill.
+     *
+     * @param time Current time in milliseconds
+     */
+    public void skip(long time) {
+        lastTime = time;
+    }
+
+    /**
+     * Predict when the fill level reaches a threshold.
+     *
+     * @param level Current fill level
+     * @param threshold Fill level to reach
+     * @param now Current time in milliseconds
+     * @param deviations Standard deviations added to the rate; positive values give an earlier, cautious estimate
+     * @return Predicted time in milliseconds, or Long.MAX_VALUE if the bin isn't expected to get there
+     */
+    public long predictCrossingTime(double level, double threshold, long now, double deviations) {
+        return crossingTime(rate, variance, hasRate, level, threshold, now, deviations);
+    }
+
+    /**
+     * Predict when the fill level reaches a threshold from a given forecast state.
+     * Shared with BinStore, which keeps the forecast state of many bins in arrays.
+     */
+    static long crossingTime(double rate, double variance, boolean hasRate, double level,
+                             double threshold, long now, double deviations) {
+        if (level >= threshold) {
+            return now;
+        }
+
+        double expectedRate = rate + deviations * Math.sqrt(variance);
+        if (!hasRate || expectedRate <= 0) {
+            return Long.MAX_VALUE;
+        }
+        double wait = Math.ceil((threshold - level) / expectedRate);
+        return (wait < Long.MAX_VALUE - now) ? now + (long) wait : Long.MAX_VALUE;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public double getRateVariance() {
+        return variance;
+    }
+}
@@ -1,20 +1,36 @@
 package garbageSimulation;
 
-import repast.simphony.context.Context;
-import repast.simphony.engine.schedule.ScheduledMethod;
+import java.util.ArrayList;
+import java.util.List;
+import repast.simphony.engine.environment.RunEnvironment;
+import repast.simphony.engine.schedule.IAction;
+import repast.simphony.engine.schedule.ISchedulableAction;
+import repast.simphony.engine.schedule.ISchedule;
+import repast.simphony.engine.schedule.ScheduleParameters;
+import repast.simphony.random.RandomHelper;
 import repast.simphony.space.continuous.ContinuousSpace;
 import repast.simphony.space.continuous.NdPoint;
-import repast.simphony.util.ContextUtils;
 
 /**
  * GarbageBin agent that collects garbage and broadcasts when it needs to be emptied.
+ * 
+ * A bin only has its broadcast on the schedule while it is over the fullness threshold
+ * or being serviced. It schedules the broadcast when it crosses the threshold and removes
+ * it again once it is emptied, so bins that don't need a vehicle cost nothing per tick.
+ * 
+ * A lazy bin isn't filled by the fill action either. It replays the fills it missed
+ * whenever its level is looked at, drawing the random part of each fill from a stream
+ * indexed by the bin and the number of the fill, so the result doesn't depend on when
+ * or in which order bins are looked at. While below the threshold it only has one
+ * wake-up on the schedule, on the tick of the fill that takes it over the threshold.
  */
 public class GarbageBin {
     private ContinuousSpace<Object> space;
+    private AgentRegistry registry;
     private int id;
-    private double fillLevel;      // Current amount of garbage in the bin
+    private double fillLevel;      // Current amount of garbage in the bin (kept in the store if attached)
     private double capacity;       // Maximum capacity of the bin
-    private boolean isBeingServiced = false;
+    private boolean isBeingServiced = false;  // Kept in the store if attached
     private long serviceStartTime = 0;
     
     // Area type constants
@@ -25,27 +41,67 @@ public class GarbageBin {
     // The type of area this bin is located in
     private String areaType;
     
-    // Broadcasting parameters
-    private static final double BROADCAST_RADIUS = 20.0;
-    private static final double FULLNESS_THRESHOLD = 0.7;  // 70% full threshold
-    private long lastBroadcastTime = 0;
-    private static final long BROADCAST_COOLDOWN = 5000;  // 5 second cooldown between broadcasts
+    // Broadcasting parameters, from the run's configuration
+    private final double broadcastRadius;
+    static final double URGENT_RANGE_FACTOR = 1.5;  // Urgent bins broadcast this much farther
+    private final double fullnessThreshold;  // Fill fraction at which the bin broadcasts
+    private final long broadcastCooldown;    // Minimum time between broadcasts
+    private long lastBroadcastTime;
     private static final long SERVICE_TIMEOUT = 12000;    // 12 second timeout for service (reduced from 20)
     private int serviceTimeoutCount = 0;
     
+    // While scheduled, the broadcast runs every BROADCAST_INTERVAL ticks on the ticks
+    // BROADCAST_START + k * BROADCAST_INTERVAL, whenever the bin started needing it
+    private static final double BROADCAST_START = 1;
+    private static final double BROADCAST_INTERVAL = 5;
+    private ISchedulableAction broadcastAction = null;
+    
+    // Bins are filled every FILL_INTERVAL ticks starting from tick FILL_START
+    static final double FILL_START = 10;
+    static final double FILL_INTERVAL = 20;
+    
+    // Lazy filling: fills replayed so far, seed of the fill stream and the scheduled wake-up
+    private boolean lazy = false;
+    private long fillsApplied = 0;
+    private long fillSeed;
+    private ISchedulableAction wakeUpAction = null;
+    private static final int MAX_WAKE_UP_SEARCH = 10000;  // Fills looked ahead for the threshold crossing
+    
+    // Online forecast of the fill rate
+    static final double FORECAST_SMOOTHING = 0.2;
+    private final FillForecaster forecaster;
+    
+    // Columnar store holding the fill level and service flag instead of the fields above, if attached
+    private BinStore store = null;
+    private int slot = -1;
+    
+    // Reused buffer for vehicles found in broadcast range
+    private final List<Vehicle> nearbyVehicles = new ArrayList<>();
+    
     /**
      * Create a new garbage bin.
      * 
      * @param space Continuous space the bin exists in
+     * @param registry Registry of the agents, whose vehicle index is used to find broadcast recipients
+     *                 and whose configuration sets the broadcast parameters
      * @param id Unique identifier for this bin
      * @param capacity Maximum capacity of the bin
      * @param areaType Type of area (COMMERCIAL, RESIDENTIAL, or LOW_DENSITY)
      */
-    public GarbageBin(ContinuousSpace<Object> space, int id, double capacity, String areaType) {
+    public GarbageBin(ContinuousSpace<Object> space, AgentRegistry registry, int id, 
+                      double capacity, String areaType) {
         this.space = space;
+        this.registry = registry;
         this.id = id;
         this.capacity = capacity;
         this.areaType = areaType;
+        this.forecaster = new FillForecaster(FORECAST_SMOOTHING, SimulationClock.now());
+        
+        SimulationConfig config = registry.getConfig();
+        this.broadcastRadius = config.getBroadcastRadius();
+        this.fullnessThreshold = config.getFullnessThreshold();
+        this.broadcastCooldown = config.getBroadcastCooldown();
+        this.lastBroadcastTime = -broadcastCooldown;  // Allow a broadcast right from the start
         
         // Set initial fill level based on area type
         switch (areaType) {
@@ -62,108 +118,245 @@ public class GarbageBin {
                 this.fillLevel = capacity * 0.5;  // Default to 50% full
                 break;
         }
+        
+        // A low threshold can put the bin over it from the start
+        updateBroadcastSchedule();
     }
     
     /**
      * Broadcast bin status to nearby vehicles when full enough.
-     * Scheduled to run every 5 ticks starting from tick 1.
+     * Scheduled every 5 ticks only while the bin is over the threshold or being serviced.
      */
-    @ScheduledMethod(start = 1, interval = 5)
     public void broadcastStatus() {
         // Check for service timeout
-        if (isBeingServiced && System.currentTimeMillis() - serviceStartTime > SERVICE_TIMEOUT) {
+        if (serviced() && SimulationClock.now() - serviceStartTime > SERVICE_TIMEOUT) {
             serviceTimeoutCount++;
-            System.out.println("Garbage Bin " + id + " (" + areaType + ") service timeout (" + 
-                               serviceTimeoutCount + ") - resetting service flag");
-            isBeingServiced = false;
+            EventLog.warn("Garbage Bin %d (%s) service timeout (%d) - resetting service flag",
+                          id, areaType, serviceTimeoutCount);
+            setServiced(false);
             
             // Force release through the coordinator if we've seen multiple timeouts
             if (serviceTimeoutCount > 2) {
-                TaskCoordinator.getInstance().forceReleaseAllBinAssignments(id);
+                registry.getCoordinator().forceReleaseAllBinAssignments(id);
                 serviceTimeoutCount = 0;
             }
         }
         
         // Only broadcast if bin is above threshold, not being serviced, and cooldown has passed
+        double fillLevel = level();
         double fillPercentage = fillLevel / capacity;
         
-        if (fillPercentage >= FULLNESS_THRESHOLD && !isBeingServiced && 
-            System.currentTimeMillis() - lastBroadcastTime >= BROADCAST_COOLDOWN) {
+        if (fillPercentage >= fullnessThreshold && !serviced() && 
+            SimulationClock.now() - lastBroadcastTime >= broadcastCooldown) {
             
             NdPoint myPoint = space.getLocation(this);
-            Context<Object> context = ContextUtils.getContext(this);
             
             // Determine urgency based on fullness
             boolean isUrgent = fillPercentage >= 0.9;  // 90% or more is urgent
             
-            // Find vehicles in broadcast range
             int vehiclesNotified = 0;
             
-            for (Object obj : context) {
-                if (obj instanceof Vehicle) {
-                    Vehicle vehicle = (Vehicle) obj;
-                    NdPoint vehiclePoint = space.getLocation(vehicle);
-                    double distance = space.getDistance(myPoint, vehiclePoint);
-                    
-                    // Use wider broadcast range for urgent bins
-                    double effectiveRange = isUrgent ? BROADCAST_RADIUS * 1.5 : BROADCAST_RADIUS;
-                    
-                    if (distance <= effectiveRange) {
-                        // Create bin status message
-                        String urgencyFlag = isUrgent ? "URGENT" : "NORMAL";
-                        String content = "BIN_STATUS:" + id + ":" + myPoint.getX() + ":" + myPoint.getY() + 
-                                       ":" + fillLevel + ":" + capacity + ":" + areaType + ":" + urgencyFlag;
-                        Message binMsg = new Message(id, "BIN_BROADCAST", content);
-                        
-                        // Send to vehicle
-                        vehicle.receiveMessage(binMsg);
-                        vehiclesNotified++;
-                    }
+            // Either way only the vehicles in broadcast range, which is wider for urgent bins,
+            // count, so the cooldown starts the same whichever way the status is delivered
+            double range = broadcastRange(broadcastRadius, isUrgent);
+            registry.syncTravellingVehicles();
+            BroadcastBus bus = registry.getBroadcastBus();
+            if (bus != null) {
+                // Publish one status message to our cell; its subscribers get it in the next digest
+                vehiclesNotified = bus.publish(new BinStatusMessage(id, MessageType.BIN_BROADCAST, id, 
+                                                                    myPoint.getX(), myPoint.getY(), 
+                                                                    fillLevel, capacity, areaType, isUrgent), 
+                                               range);
+            } else {
+                // Find vehicles in broadcast range
+                nearbyVehicles.clear();
+                registry.getVehicleGrid().query(myPoint.getX(), myPoint.getY(), range, nearbyVehicles);
+                
+                // Send to vehicles, copied straight into their mailboxes
+                for (Vehicle vehicle : nearbyVehicles) {
+                    vehicle.receiveBinStatus(MessageType.BIN_BROADCAST, id, id, myPoint.getX(), myPoint.getY(), 
+                                             fillLevel, capacity, areaType, isUrgent);
+                    vehiclesNotified++;
                 }
             }
             
             if (vehiclesNotified > 0) {
-                System.out.println("Garbage Bin " + id + " (" + areaType + ") is " + 
-                                 String.format("%.1f", fillPercentage * 100) + "% full" + 
-                                 (isUrgent ? " (URGENT)" : "") + 
-                                 " - broadcasting to " + vehiclesNotified + " vehicles");
-                lastBroadcastTime = System.currentTimeMillis();
+                if (EventLog.isInfoEnabled()) {
+                    EventLog.info("Garbage Bin %d (%s) is %.1f%% full%s - broadcasting to %d vehicles",
+                                  id, areaType, fillPercentage * 100, (isUrgent ? " (URGENT)" : ""), vehiclesNotified);
+                }
+                lastBroadcastTime = SimulationClock.now();
             }
         }
+        
+        // A service timeout below the threshold leaves nothing more to broadcast
+        updateBroadcastSchedule();
+    }
+    
+    /**
+     * Get the distance up to which a bin broadcast reaches vehicles.
+     * 
+     * @param broadcastRadius Broadcast radius of the run
+     * @param isUrgent Whether the bin is urgently full
+     */
+    static double broadcastRange(double broadcastRadius, boolean isUrgent) {
+        return isUrgent ? broadcastRadius * URGENT_RANGE_FACTOR : broadcastRadius;
     }
     
     /**
      * Add garbage to the bin based on area type.
-     * Scheduled to run every 20 ticks starting from tick 10.
+     * Called for every bin by a single action the builder schedules every 20 ticks
+     * starting from tick 10, unless the bins are kept in a BinStore, which fills them all at once.
      */
-    @ScheduledMethod(start = 10, interval = 20)
     public void addGarbage() {
         // Skip if being serviced
-        if (isBeingServiced) return;
+        if (serviced()) {
+            forecaster.skip(SimulationClock.now());
+            return;
+        }
         
         // Determine fill rate based on area type
-        double fillRate = 0;
+        double fillRate = fillRate(RandomHelper.nextDouble());
+        
+        // Learn the fill rate and add garbage
+        forecaster.observe(fillRate, SimulationClock.now());
+        fill(fillRate);
+    }
+    
+    /**
+     * Get the amount of garbage one fill adds, based on area type.
+     * 
+     * @param random Random number between 0 and 1
+     */
+    private double fillRate(double random) {
         switch (areaType) {
             case AREA_COMMERCIAL:
                 // Commercial areas fill faster (7-13% of capacity)
-                fillRate = capacity * 0.10 * (0.7 + Math.random() * 0.6);
-                break;
+                return capacity * 0.10 * (0.7 + random * 0.6);
             case AREA_RESIDENTIAL:
                 // Residential areas fill at medium rate (3.5-7.5% of capacity)
-                fillRate = capacity * 0.05 * (0.7 + Math.random() * 0.6);
-                break;
+                return capacity * 0.05 * (0.7 + random * 0.6);
             case AREA_LOW_DENSITY:
                 // Low density areas fill slower (1.4-3% of capacity)
-                fillRate = capacity * 0.02 * (0.7 + Math.random() * 0.6);
-                break;
+                return capacity * 0.02 * (0.7 + random * 0.6);
             default:
                 // Default fill rate
-                fillRate = capacity * 0.05 * Math.random();
-                break;
+                return capacity * 0.05 * random;
+        }
+    }
+    
+    /**
+     * Fill this bin lazily from now on instead of through addGarbage().
+     * The fills of a tick count as done from the start of that tick.
+     * 
+     * @param seed Seed of the random stream the fills are drawn from
+     */
+    void makeLazy(long seed) {
+        if (store != null) {
+            throw new IllegalStateException("Bin " + id + " is kept in a columnar store and can't be filled lazily");
+        }
+        lazy = true;
+        fillSeed = seed;
+        fillsApplied = fillsDue(currentTick());
+        updateBroadcastSchedule();
+    }
+    
+    /**
+     * Replay the fills that were due since the bin was last looked at.
+     * Works on the fields directly: a lazy bin is never kept in a store (see makeLazy()).
+     */
+    private void catchUp() {
+        long due = fillsDue(currentTick());
+        if (fillsApplied >= due) {
+            return;
         }
         
-        // Add garbage
-        fill(fillRate);
+        boolean crossed = false;
+        while (fillsApplied < due) {
+            long fill = fillsApplied++;
+            long time = fillTime(fill);
+            if (isBeingServiced) {
+                forecaster.skip(time);
+                continue;
+            }
+            double amount = fillRate(fillRandom(fill));
+            forecaster.observe(amount, time);
+            
+            double oldFillLevel = fillLevel;
+            fillLevel = Math.min(capacity, fillLevel + amount);
+            crossed |= oldFillLevel / capacity < fullnessThreshold && fillLevel / capacity >= fullnessThreshold;
+        }
+        
+        if (crossed) {
+            thresholdCrossed();
+        }
+    }
+    
+    /**
+     * Wake-up of a lazy bin at the fill projected to take it over the threshold.
+     */
+    private void wakeUp() {
+        wakeUpAction = null;
+        catchUp();
+        updateBroadcastSchedule();
+    }
+    
+    /**
+     * Find the first fill from now on that takes the bin over the threshold.
+     * 
+     * @return Number of the fill, or the last fill looked at if none does within MAX_WAKE_UP_SEARCH
+     */
+    private long findCrossingFill() {
+        double level = fillLevel;
+        long fill = fillsApplied;
+        for (int i = 0; i < MAX_WAKE_UP_SEARCH; i++, fill++) {
+            level = Math.min(capacity, level + fillRate(fillRandom(fill)));
+            if (level / capacity >= fullnessThreshold) {
+                return fill;
+            }
+        }
+        return fill - 1;
+    }
+    
+    /**
+     * Get the random number of a fill, from a counter-based stream of this bin (SplitMix64).
+     */
+    private double fillRandom(long fill) {
+        long z = mix64(fillSeed ^ mix64(id * 0x9E3779B97F4A7C15L)) + fill * 0x9E3779B97F4A7C15L;
+        return (mix64(z) >>> 11) * 0x1.0p-53;
+    }
+    
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+    
+    /**
+     * Get the number of fills done up to and including the given tick.
+     */
+    private static long fillsDue(double tick) {
+        return (tick < FILL_START) ? 0 : (long) Math.floor((tick - FILL_START) / FILL_INTERVAL) + 1;
+    }
+    
+    private static double fillTick(long fill) {
+        return FILL_START + fill * FILL_INTERVAL;
+    }
+    
+    /**
+     * Get the time of a fill for the forecast, which is the current time unless it is driven by the schedule.
+     */
+    private static long fillTime(long fill) {
+        if (SimulationClock.getTimeSource() != SimulationClock.TICK_CLOCK) {
+            return SimulationClock.now();
+        }
+        return (long) (fillTick(fill) * SimulationClock.MILLIS_PER_TICK);
+    }
+    
+    private static double currentTick() {
+        RunEnvironment environment = RunEnvironment.getInstance();
+        ISchedule schedule = (environment != null) ? environment.getCurrentSchedule() : null;
+        return (schedule != null) ? schedule.getTickCount() : 0;
     }
     
     /**
@@ -172,11 +365,12 @@ public class GarbageBin {
      * @return Amount of garbage removed
      */
     public double emptyBin() {
-        double amount = this.fillLevel;
-        this.fillLevel = 0;
-        this.isBeingServiced = false;
+        double amount = level();
+        setLevel(0);
+        setServiced(false);
         this.serviceTimeoutCount = 0;
-        System.out.println("Garbage Bin " + id + " (" + areaType + ") has been completely emptied");
+        updateBroadcastSchedule();
+        EventLog.info("Garbage Bin %d (%s) has been completely emptied", id, areaType);
         return amount;
     }
     
@@ -187,15 +381,19 @@ public class GarbageBin {
      * @return Actual amount removed
      */
     public double reduceLevel(double amount) {
-        if (amount > this.fillLevel) {
-            amount = this.fillLevel;
+        double fillLevel = level();
+        if (amount > fillLevel) {
+            amount = fillLevel;
         }
         double collected = amount;
-        this.fillLevel -= amount;
-        this.isBeingServiced = false;
+        setLevel(fillLevel - amount);
+        setServiced(false);
         this.serviceTimeoutCount = 0;
-        System.out.println("Garbage Bin " + id + " (" + areaType + ") has been partially emptied - now at " + 
-                          String.format("%.1f", getFillPercentage()) + "% capacity");
+        updateBroadcastSchedule();
+        if (EventLog.isInfoEnabled()) {
+            EventLog.info("Garbage Bin %d (%s) has been partially emptied - now at %.1f%% capacity",
+                          id, areaType, getFillPercentage());
+        }
         return collected;
     }
     
@@ -203,9 +401,10 @@ public class GarbageBin {
      * Mark this bin as being serviced by a vehicle.
      */
     public void markAsBeingServiced() {
-        this.isBeingServiced = true;
-        this.serviceStartTime = System.currentTimeMillis();
-        System.out.println("Garbage Bin " + id + " (" + areaType + ") is now marked for service");
+        setServiced(true);
+        this.serviceStartTime = SimulationClock.now();
+        updateBroadcastSchedule();  // Keep checking for a service timeout
+        EventLog.info("Garbage Bin %d (%s) is now marked for service", id, areaType);
     }
     
     /**
@@ -214,16 +413,122 @@ public class GarbageBin {
      * @param amount Amount of garbage to add
      */
     public void fill(double amount) {
-        double oldFillLevel = fillLevel;
-        fillLevel = Math.min(capacity, fillLevel + amount);
+        double oldFillLevel = level();
+        double newFillLevel = Math.min(capacity, oldFillLevel + amount);
+        setLevel(newFillLevel);
         
         // Log when bin exceeds the threshold
         double oldFillPercentage = oldFillLevel / capacity;
-        double newFillPercentage = fillLevel / capacity;
+        double newFillPercentage = newFillLevel / capacity;
+        
+        if (oldFillPercentage < fullnessThreshold && newFillPercentage >= fullnessThreshold) {
+            thresholdCrossed();
+        }
+    }
+    
+    /**
+     * Called when the fill level has just crossed the fullness threshold.
+     */
+    void thresholdCrossed() {
+        if (EventLog.isInfoEnabled()) {
+            EventLog.info("Garbage Bin %d (%s) has just crossed the %s%% threshold!",
+                          id, areaType, fullnessThreshold * 100);
+        }
+        updateBroadcastSchedule();
+    }
+    
+    /**
+     * Check whether the broadcast must be on the schedule: while the bin is over
+     * the threshold it broadcasts, and while it is being serviced it watches for a timeout.
+     */
+    boolean needsBroadcast() {
+        return serviced() || level() / capacity >= fullnessThreshold;
+    }
+    
+    /**
+     * Add the broadcast to the schedule or remove it, as the state of the bin requires.
+     * A new broadcast starts on the next tick of the 5-tick cycle all bins share, so it
+     * runs on the same ticks as it would if it were never removed, and it runs after
+     * the vehicles have stepped in that tick. A lazy bin that doesn't need the broadcast
+     * has its wake-up scheduled instead.
+     */
+    private void updateBroadcastSchedule() {
+        // Batch assignment only looks at the bins that need the broadcast
+        boolean needed = needsBroadcast();
+        registry.setBinActive(id, needed);
+        
+        RunEnvironment environment = RunEnvironment.getInstance();
+        ISchedule schedule = (environment != null) ? environment.getCurrentSchedule() : null;
+        if (schedule == null) {
+            return;  // Not in a run, e.g. in a benchmark that broadcasts by hand
+        }
+        
+        if (needed && broadcastAction == null) {
+            double tick = Math.max(BROADCAST_START, schedule.getTickCount());
+            double start = BROADCAST_START 
+                           + Math.ceil((tick - BROADCAST_START) / BROADCAST_INTERVAL) * BROADCAST_INTERVAL;
+            IAction broadcast = this::broadcastStatus;
+            broadcastAction = schedule.schedule(ScheduleParameters.createRepeating(start, BROADCAST_INTERVAL, 
+                                                                                   ScheduleParameters.LAST_PRIORITY), 
+                                                broadcast);
+        } else if (!needed && broadcastAction != null) {
+            schedule.removeAction(broadcastAction);
+            broadcastAction = null;
+        }
         
-        if (oldFillPercentage < FULLNESS_THRESHOLD && newFillPercentage >= FULLNESS_THRESHOLD) {
-            System.out.println("Garbage Bin " + id + " (" + areaType + ") has just crossed the " + 
-                              (FULLNESS_THRESHOLD * 100) + "% threshold!");
+        if (!lazy) {
+            return;
+        }
+        if (needed && wakeUpAction != null) {
+            schedule.removeAction(wakeUpAction);
+            wakeUpAction = null;
+        } else if (!needed && wakeUpAction == null) {
+            IAction wakeUp = this::wakeUp;
+            wakeUpAction = schedule.schedule(ScheduleParameters.createOneTime(fillTick(findCrossingFill())), wakeUp);
+        }
+    }
+    
+    /**
+     * Move the fill level and service flag of this bin into a columnar store.
+     * From then on the store fills the bin, and addGarbage() must no longer be called.
+     * 
+     * @param binStore Store to keep the state in
+     */
+    void attachTo(BinStore binStore) {
+        if (lazy) {
+            throw new IllegalStateException("Bin " + id + " is filled lazily and can't be kept in a columnar store");
+        }
+        slot = binStore.add(this, fillLevel, capacity, areaType, isBeingServiced, SimulationClock.now());
+        store = binStore;
+    }
+    
+    private double level() {
+        if (lazy) {
+            catchUp();
+        }
+        return (store != null) ? store.getFillLevel(slot) : fillLevel;
+    }
+    
+    private void setLevel(double level) {
+        if (store != null) {
+            store.setFillLevel(slot, level);
+        } else {
+            fillLevel = level;
+        }
+    }
+    
+    private boolean serviced() {
+        return (store != null) ? store.isServiced(slot) : isBeingServiced;
+    }
+    
+    private void setServiced(boolean serviced) {
+        if (lazy) {
+            catchUp();  // Replay the fills due so far under the flag that applied to them
+        }
+        if (store != null) {
+            store.setServiced(slot, serviced);
+        } else {
+            isBeingServiced = serviced;
         }
     }
     
@@ -233,8 +538,12 @@ public class GarbageBin {
         return id;
     }
     
+    public NdPoint getLocation() {
+        return space.getLocation(this);
+    }
+    
     public double getFillLevel() {
-        return fillLevel;
+        return level();
     }
     
     public double getCapacity() {
@@ -242,15 +551,37 @@ public class GarbageBin {
     }
     
     public double getFillPercentage() {
-        return (fillLevel / capacity) * 100;
+        return (level() / capacity) * 100;
     }
     
     public boolean isFull() {
-        return (fillLevel / capacity) >= FULLNESS_THRESHOLD;
+        return (level() / capacity) >= fullnessThreshold;
+    }
+    
+    /**
+     * Predict when the bin crosses the fullness threshold.
+     * 
+     * @param deviations Standard deviations added to the forecast fill rate (positive for an earlier estimate)
+     * @return Predicted time in milliseconds, or Long.MAX_VALUE if no crossing is expected
+     */
+    public long predictThresholdCrossing(double deviations) {
+        if (store != null) {
+            return store.predictCrossingTime(slot, SimulationClock.now(), deviations);
+        }
+        return forecaster.predictCrossingTime(level(), capacity * fullnessThreshold, 
+                                              SimulationClock.now(), deviations);
+    }
+    
+    /**
+     * Get the fill rate forecast of the bin, which is only kept up to date while the bin
+     * is not attached to a BinStore.
+     */
+    public FillForecaster getForecaster() {
+        return forecaster;
     }
     
     public boolean isBeingServiced() {
-        return isBeingServiced;
+        return serviced();
     }
     
     public String getAreaType() {
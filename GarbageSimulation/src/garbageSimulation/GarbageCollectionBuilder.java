@@ -4,9 +4,18 @@ import repast.simphony.context.Context;
 import repast.simphony.context.space.continuous.ContinuousSpaceFactory;
 import repast.simphony.context.space.continuous.ContinuousSpaceFactoryFinder;
 import repast.simphony.dataLoader.ContextBuilder;
+import repast.simphony.engine.environment.RunEnvironment;
+import repast.simphony.engine.schedule.IAction;
+import repast.simphony.engine.schedule.ISchedule;
+import repast.simphony.engine.schedule.ScheduleParameters;
+import repast.simphony.parameter.Parameters;
 import repast.simphony.random.RandomHelper;
 import repast.simphony.space.continuous.ContinuousSpace;
+import repast.simphony.space.continuous.NdPoint;
 import repast.simphony.space.continuous.RandomCartesianAdder;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
 
 /**
  * Builder for the garbage collection simulation.
@@ -14,79 +23,338 @@ import repast.simphony.space.continuous.RandomCartesianAdder;
  */
 public class GarbageCollectionBuilder implements ContextBuilder<Object> {
     
+    // Size of the space unless the scenario sets it
+    private static final double DEFAULT_WORLD_SIZE = 50.0;
+    
+    // Number of bins of a generated scenario unless set
+    private static final int DEFAULT_GENERATED_BINS = 1000;
+    
+    // Cell size of the vehicle index, matching the bin broadcast radius
+    private static final double VEHICLE_GRID_CELL_SIZE = 20.0;
+    
+    // Most cells in the vehicle index; cells grow beyond the cell size in very large spaces
+    private static final double MAX_GRID_CELLS = 1 << 20;
+    
+    // Extra distance kept in the vehicle neighbor lists before they must be rebuilt: ten ticks
+    // of travel at the vehicle speed of 1, so the lists last at least five ticks of movement
+    private static final double NEIGHBOR_SKIN = 10.0;
+    
+    // Ticks between predictive dispatch rounds
+    private static final double PREPOSITION_INTERVAL = 5;
+    
+    // Starting positions of the first vehicles; any further vehicles start at random positions
+    private static final double[][] VEHICLE_START_POSITIONS = {
+        {25, 25}, // Center
+        {10, 10}, // Near residential area
+        {40, 40}, // Near commercial area
+        {5, 45}   // Near low density area
+    };
+    
     @Override
     public Context<Object> build(Context<Object> context) {
         context.setId("GarbageSimulation");
         
+        Parameters params = RunEnvironment.getInstance().getParameters();
+        
+        // Drive timeouts from the schedule unless real-time pacing is requested
+        if (getBoolean(params, "useWallClock", false)) {
+            SimulationClock.setTimeSource(SimulationClock.WALL_CLOCK);
+        } else {
+            SimulationClock.setTimeSource(SimulationClock.TICK_CLOCK);
+        }
+        
+        // Set how much of the event log is written
+        EventLog.setLevel(EventLog.Level.valueOf(getString(params, "logLevel", "INFO").trim().toUpperCase()));
+        
+        // Settings of this run, shared with the agents through the registry
+        SimulationConfig defaults = new SimulationConfig();
+        SimulationConfig config = new SimulationConfig(
+            getDouble(params, "broadcastRadius", defaults.getBroadcastRadius()),
+            getDouble(params, "fullnessThreshold", defaults.getFullnessThreshold()),
+            getLong(params, "broadcastCooldown", defaults.getBroadcastCooldown()),
+            getInt(params, "collectionDuration", defaults.getCollectionDuration()),
+            getInt(params, "vehicleCount", defaults.getVehicleCount()),
+            getDouble(params, "vehicleCapacity", defaults.getVehicleCapacity()),
+            getLong(params, "emptyCooldown", defaults.getEmptyCooldown()));
+        
+        // Predictive dispatch looks at every bin below the threshold each round, which
+        // would catch up every lazy bin and undo what lazy filling saves
+        if (getBoolean(params, "lazyBins", false) && getBoolean(params, "predictiveDispatch", false)) {
+            throw new IllegalArgumentException("lazyBins can't be combined with predictiveDispatch");
+        }
+        
         // Create a continuous space for vehicle movement
+        // Agents are added at random locations unless a location is preset for them
+        double width = getDouble(params, "worldWidth", DEFAULT_WORLD_SIZE);
+        double height = getDouble(params, "worldHeight", DEFAULT_WORLD_SIZE);
+        PresetLocationAdder<Object> adder = new PresetLocationAdder<>(new RandomCartesianAdder<Object>());
         ContinuousSpaceFactory spaceFactory = 
             ContinuousSpaceFactoryFinder.createContinuousSpaceFactory(null);
         ContinuousSpace<Object> space = 
-            spaceFactory.createContinuousSpace("space", context, 
-                                               new RandomCartesianAdder<Object>(),
+            spaceFactory.createContinuousSpace("space", context, adder,
                                                new repast.simphony.space.continuous.WrapAroundBorders(),
-                                               50, 50);
+                                               width, height);
+        
+        // Spatial index of the vehicles so bins only look at vehicles near them
+        double cellSize = Math.max(VEHICLE_GRID_CELL_SIZE, Math.sqrt(width * height / MAX_GRID_CELLS));
+        SpatialGrid<Vehicle> vehicleGrid = new SpatialGrid<>(width, height, cellSize);
+        VehicleNeighborList neighborList = 
+            new VehicleNeighborList(vehicleGrid, Vehicle.COMMUNICATION_RADIUS, NEIGHBOR_SKIN);
+        
+        // Registry of all agents, giving lookup by ID without scanning the context
+        AgentRegistry registry = new AgentRegistry(neighborList, config);
+        
+        if (getBoolean(params, "generateScenario", false)) {
+            // Generate a city of any size
+            ScenarioGenerator generator = new ScenarioGenerator(width, height, 
+                                                                getInt(params, "binCount", DEFAULT_GENERATED_BINS), 
+                                                                getInt(params, "zoneCount", 0), 
+                                                                RandomHelper.getSeed());
+            generator.populate(context, space, adder, registry);
+        } else {
+            addDefaultAgents(context, space, registry, config);
+        }
+        
+        // Plan multi-stop tours if requested
+        if (getBoolean(params, "routePlanning", false)) {
+            RoutePlanner planner = new RoutePlanner(space.getDimensions().getWidth(), 
+                                                    space.getDimensions().getHeight());
+            for (Vehicle vehicle : registry.getVehicles()) {
+                vehicle.setRoutePlanner(planner);
+            }
+        }
+        
+        // Send bin broadcasts through per-cell channels if requested, subscribing
+        // each vehicle to the cells within reach of the widest broadcast range
+        BroadcastBus broadcastBus = null;
+        if (getBoolean(params, "broadcastDigests", false)) {
+            double channelSize = Math.max(config.getBroadcastRadius(), Math.sqrt(width * height / MAX_GRID_CELLS));
+            broadcastBus = new BroadcastBus(width, height, channelSize, 
+                                            GarbageBin.broadcastRange(config.getBroadcastRadius(), true));
+            registry.setBroadcastBus(broadcastBus);
+        }
+        
+        // Index the vehicles at their starting positions
+        for (Vehicle vehicle : registry.getVehicles()) {
+            NdPoint location = space.getLocation(vehicle);
+            vehicle.updateIndexes(location.getX(), location.getY());
+        }
+        
+        // Step the vehicles every tick, either one by one or as a fleet in two phases
+        ISchedule schedule = RunEnvironment.getInstance().getCurrentSchedule();
+        if (broadcastBus != null) {
+            // Hand out the digests of the previous tick's broadcasts before the vehicles step,
+            // to the subscribers of the cells the vehicles on a trip are in by now
+            BroadcastBus bus = broadcastBus;
+            IAction deliverDigests = () -> {
+                registry.syncTravellingVehicles();
+                bus.deliver();
+            };
+            schedule.schedule(ScheduleParameters.createRepeating(1, 1, ScheduleParameters.FIRST_PRIORITY), deliverDigests);
+        }
+        if (getBoolean(params, "parallelStepping", false)) {
+            ParallelFleetStepper stepper = new ParallelFleetStepper(registry, getInt(params, "stepThreads", 0));
+            schedule.schedule(ScheduleParameters.createRepeating(1, 1), stepper);
+            schedule.schedule(ScheduleParameters.createAtEnd(ScheduleParameters.LAST_PRIORITY), stepper, "shutdown");
+        } else if (getBoolean(params, "eventMovement", false)) {
+            // Skip the ticks vehicles spend travelling to a bin, waking them up when they arrive
+            for (Vehicle vehicle : registry.getVehicles()) {
+                vehicle.startStepping(true);
+            }
+        } else {
+            for (Vehicle vehicle : registry.getVehicles()) {
+                schedule.schedule(ScheduleParameters.createRepeating(1, 1), vehicle, "step");
+            }
+        }
+        
+        // Fill all bins in one action, either bin by bin or in one pass over a columnar store,
+        // or let each bin catch up on its fills only when it is looked at
+        IAction fillBins = null;
+        if (getBoolean(params, "lazyBins", false)) {
+            for (GarbageBin bin : registry.getBins()) {
+                bin.makeLazy(RandomHelper.getSeed());
+            }
+        } else if (getBoolean(params, "columnarBins", false)) {
+            BinStore binStore = new BinStore(registry.getBins().size(), config.getFullnessThreshold(), 
+                                             GarbageBin.FORECAST_SMOOTHING);
+            for (GarbageBin bin : registry.getBins()) {
+                bin.attachTo(binStore);
+            }
+            fillBins = binStore::fillAll;
+        } else {
+            List<GarbageBin> bins = registry.getBins();
+            fillBins = () -> {
+                for (int i = 0; i < bins.size(); i++) {
+                    bins.get(i).addGarbage();
+                }
+            };
+        }
+        if (fillBins != null) {
+            schedule.schedule(ScheduleParameters.createRepeating(GarbageBin.FILL_START, GarbageBin.FILL_INTERVAL), fillBins);
+        }
         
+        // Assign idle vehicles to open bins globally each tick, before the vehicles step
+        TaskCoordinator coordinator = registry.getCoordinator();
+        coordinator.setBatchAssignment(getBoolean(params, "batchAssignment", false));
+        if (coordinator.isBatchAssignment()) {
+            IAction assignBatch = () -> coordinator.assignBatch(registry.getVehicles(), registry);
+            schedule.schedule(ScheduleParameters.createRepeating(1, 1, ScheduleParameters.FIRST_PRIORITY), assignBatch);
+        }
+        
+        // Send idle vehicles toward bins forecast to fill up soon
+        if (getBoolean(params, "predictiveDispatch", false)) {
+            IAction preposition = () -> coordinator.prepositionIdleVehicles(registry.getVehicles(), registry.getBins());
+            schedule.schedule(ScheduleParameters.createRepeating(1, PREPOSITION_INTERVAL, ScheduleParameters.FIRST_PRIORITY), 
+                              preposition);
+        }
+        
+        // Stop after a fixed number of ticks, e.g. for batch runs
+        double stopAt = getDouble(params, "stopAt", 0);
+        if (stopAt > 0) {
+            RunEnvironment.getInstance().endAt(stopAt);
+        }
+        
+        // Write the outcome of the run when it ends, e.g. for SweepRunner to merge
+        String summaryFile = getString(params, "summaryFile", "").trim();
+        if (!summaryFile.isEmpty()) {
+            RunSummary summary = new RunSummary(registry);
+            IAction writeSummary = () -> {
+                try {
+                    summary.write(Paths.get(summaryFile), schedule.getTickCount());
+                } catch (IOException e) {
+                    EventLog.warn("Could not write run summary to %s: %s", summaryFile, e.getMessage());
+                }
+            };
+            schedule.schedule(ScheduleParameters.createAtEnd(ScheduleParameters.LAST_PRIORITY), writeSummary);
+        }
+        
+        // Write out any events still queued when the run ends
+        IAction flushLog = EventLog::flush;
+        schedule.schedule(ScheduleParameters.createAtEnd(ScheduleParameters.LAST_PRIORITY), flushLog);
+        
+        return context;
+    }
+    
+    /**
+     * Create the default scenario: nine bins in three areas and the configured
+     * number of vehicles, the first four at fixed starting positions.
+     */
+    private void addDefaultAgents(Context<Object> context, ContinuousSpace<Object> space, 
+                                  AgentRegistry registry, SimulationConfig config) {
         // Create several garbage bins at various locations with different area types
         
         // Commercial area bins (upper right quadrant)
-        GarbageBin bin1 = new GarbageBin(space, 1, 100.0, GarbageBin.AREA_COMMERCIAL);
+        GarbageBin bin1 = new GarbageBin(space, registry, 1, 100.0, GarbageBin.AREA_COMMERCIAL);
         context.add(bin1);
+        registry.addBin(bin1);
         space.moveTo(bin1, 35, 40);
         
-        GarbageBin bin2 = new GarbageBin(space, 2, 120.0, GarbageBin.AREA_COMMERCIAL);
+        GarbageBin bin2 = new GarbageBin(space, registry, 2, 120.0, GarbageBin.AREA_COMMERCIAL);
         context.add(bin2);
+        registry.addBin(bin2);
         space.moveTo(bin2, 40, 30);
         
-        GarbageBin bin3 = new GarbageBin(space, 3, 150.0, GarbageBin.AREA_COMMERCIAL);
+        GarbageBin bin3 = new GarbageBin(space, registry, 3, 150.0, GarbageBin.AREA_COMMERCIAL);
         context.add(bin3);
+        registry.addBin(bin3);
         space.moveTo(bin3, 45, 35);
         
         // Residential area bins (bottom left quadrant)
-        GarbageBin bin4 = new GarbageBin(space, 4, 90.0, GarbageBin.AREA_RESIDENTIAL);
+        GarbageBin bin4 = new GarbageBin(space, registry, 4, 90.0, GarbageBin.AREA_RESIDENTIAL);
         context.add(bin4);
+        registry.addBin(bin4);
         space.moveTo(bin4, 15, 15);
         
-        GarbageBin bin5 = new GarbageBin(space, 5, 80.0, GarbageBin.AREA_RESIDENTIAL);
+        GarbageBin bin5 = new GarbageBin(space, registry, 5, 80.0, GarbageBin.AREA_RESIDENTIAL);
         context.add(bin5);
+        registry.addBin(bin5);
         space.moveTo(bin5, 10, 20);
         
-        GarbageBin bin6 = new GarbageBin(space, 6, 100.0, GarbageBin.AREA_RESIDENTIAL);
+        GarbageBin bin6 = new GarbageBin(space, registry, 6, 100.0, GarbageBin.AREA_RESIDENTIAL);
         context.add(bin6);
+        registry.addBin(bin6);
         space.moveTo(bin6, 20, 10);
         
         // Low density area bins (upper left and bottom right quadrants)
-        GarbageBin bin7 = new GarbageBin(space, 7, 70.0, GarbageBin.AREA_LOW_DENSITY);
+        GarbageBin bin7 = new GarbageBin(space, registry, 7, 70.0, GarbageBin.AREA_LOW_DENSITY);
         context.add(bin7);
+        registry.addBin(bin7);
         space.moveTo(bin7, 10, 40);
         
-        GarbageBin bin8 = new GarbageBin(space, 8, 60.0, GarbageBin.AREA_LOW_DENSITY);
+        GarbageBin bin8 = new GarbageBin(space, registry, 8, 60.0, GarbageBin.AREA_LOW_DENSITY);
         context.add(bin8);
+        registry.addBin(bin8);
         space.moveTo(bin8, 40, 10);
         
-        GarbageBin bin9 = new GarbageBin(space, 9, 80.0, GarbageBin.AREA_LOW_DENSITY);
+        GarbageBin bin9 = new GarbageBin(space, registry, 9, 80.0, GarbageBin.AREA_LOW_DENSITY);
         context.add(bin9);
+        registry.addBin(bin9);
         space.moveTo(bin9, 5, 30);
         
         // Create collection vehicles - all with standard capabilities
         // The type names are kept for display purposes only
-        Vehicle vehicle1 = new Vehicle(space, 1, "Collector 1", 1.0);
-        Vehicle vehicle2 = new Vehicle(space, 2, "Collector 2", 1.0);
-        Vehicle vehicle3 = new Vehicle(space, 3, "Collector 3", 1.0);
-        Vehicle vehicle4 = new Vehicle(space, 4, "Collector 4", 1.0);
-        
-        // Add the vehicles to the context
-        context.add(vehicle1);
-        context.add(vehicle2);
-        context.add(vehicle3);
-        context.add(vehicle4);
-        
-        // Place the vehicles at different starting positions
-        space.moveTo(vehicle1, 25, 25); // Center
-        space.moveTo(vehicle2, 10, 10); // Near residential area
-        space.moveTo(vehicle3, 40, 40); // Near commercial area
-        space.moveTo(vehicle4, 5, 45);  // Near low density area
-        
-        return context;
+        for (int vehicleId = 1; vehicleId <= config.getVehicleCount(); vehicleId++) {
+            Vehicle vehicle = new Vehicle(space, registry, vehicleId, "Collector " + vehicleId, 1.0);
+            context.add(vehicle);
+            registry.addVehicle(vehicle);
+            
+            // Place the vehicle at its starting position, or leave it where the adder put it
+            if (vehicleId <= VEHICLE_START_POSITIONS.length) {
+                double[] start = VEHICLE_START_POSITIONS[vehicleId - 1];
+                space.moveTo(vehicle, start[0], start[1]);
+            }
+        }
+    }
+    
+    /**
+     * Read a boolean model parameter, falling back to a default when it is not defined.
+     */
+    private static boolean getBoolean(Parameters params, String name, boolean defaultValue) {
+        if (params == null || !params.getSchema().contains(name)) {
+            return defaultValue;
+        }
+        return params.getBoolean(name);
+    }
+    
+    /**
+     * Read a string model parameter, falling back to a default when it is not defined.
+     */
+    private static String getString(Parameters params, String name, String defaultValue) {
+        if (params == null || !params.getSchema().contains(name)) {
+            return defaultValue;
+        }
+        return params.getString(name);
+    }
+    
+    /**
+     * Read an integer model parameter, falling back to a default when it is not defined.
+     */
+    private static int getInt(Parameters params, String name, int defaultValue) {
+        if (params == null || !params.getSchema().contains(name)) {
+            return defaultValue;
+        }
+        return params.getInteger(name);
+    }
+    
+    /**
+     * Read a long integer model parameter, falling back to a default when it is not defined.
+     * Any numeric type is accepted, since sweep files give whole numbers as integers.
+     */
+    private static long getLong(Parameters params, String name, long defaultValue) {
+        if (params == null || !params.getSchema().contains(name)) {
+            return defaultValue;
+        }
+        return ((Number) params.getValue(name)).longValue();
+    }
+    
+    /**
+     * Read a floating-point model parameter, falling back to a default when it is not defined.
+     * Any numeric type is accepted, since sweep files give whole numbers as integers.
+     */
+    private static double getDouble(Parameters params, String name, double defaultValue) {
+        if (params == null || !params.getSchema().contains(name)) {
+            return defaultValue;
+        }
+        return ((Number) params.getValue(name)).doubleValue();
     }
 }
\ No newline at end of file
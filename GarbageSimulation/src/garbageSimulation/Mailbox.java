@@ -0,0 +1,385 @@
+package garbageSimulation;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi-producer, single-consumer mailbox of a vehicle.
+ *
+ * Messages are held in a ring buffer of slots that are reused from lap to lap.
+ * Senders claim a slot with a compare-and-set on the tail and publish it
+ * through the slot's sequence number (a bounded queue in the style of Vyukov),
+ * so any number of agents may send at the same time without a lock. A slot is
+ * only created the first time its position is written, so a mailbox holds as
+ * many slots as its busiest tick needed rather than its full capacity. Bin
+ * statuses are copied field by field into the slot, so sending one allocates
+ * nothing; other messages, such as cell digests, are stored by reference.
+ *
+ * Overflow policy: when the ring is full, a bin status replaces the unread
+ * status of the same bin in the ring, found through an index by bin ID (it
+ * stays a broadcast if the status it replaces was one). If the bin has no
+ * status waiting, or the index has lost track of it, the status is dropped and
+ * counted; bins broadcast again after their cooldown and vehicles share what
+ * they know every tick, so a newer status follows. Other messages are queued
+ * in order and handed out after the ring; they are few, one digest per
+ * subscribed cell at most.
+ */
+public class Mailbox {
+    private final Slot[] slots;
+    private final AtomicLongArray sequences;  // Position each slot is ready for: equal to it when free, one more once written
+    private final int mask;
+
+    // Next position to write, shared by the senders, and next position to read, owned by the consumer
+    private final AtomicLong tail = new AtomicLong();
+    private long head = 0;
+
+    // Slot of the latest status written for each bin ID, modulo the ring size; only a hint
+    private final AtomicIntegerArray latest;
+
+    // Messages other than bin statuses that didn't fit into the ring
+    private final ConcurrentLinkedQueue<Message> overflow = new ConcurrentLinkedQueue<>();
+    private final AtomicLong overflowCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    /**
+     * Receiver of the messages taken out of the mailbox.
+     */
+    public interface Consumer {
+        /**
+         * Handle a bin status (type BIN_BROADCAST or BIN_INFO).
+         * The status is only valid during the call, since its slot is reused afterwards.
+         */
+        void status(MessageType type, BinStatus status);
+
+        /**
+         * Handle any other message.
+         */
+        void message(Message message);
+    }
+
+    /**
+     * Reusable ring buffer entry. Holds either the fields of a bin status or a message.
+     */
+    private static final class Slot implements BinStatus {
+        private static final AtomicIntegerFieldUpdater<Slot> OWNER =
+            AtomicIntegerFieldUpdater.newUpdater(Slot.class, "owner");
+        private static final int FREE = 0;
+        private static final int TAKEN = 1;
+
+        // Taken by the consumer while it reads the slot, or by a sender replacing the status in it
+        volatile int owner = FREE;
+
+        MessageType type;
+        Message message;  // Set for messages other than bin statuses
+        int senderId;
+        int binId;
+        double x;
+        double y;
+        double fillLevel;
+        double capacity;
+        String areaType;
+        boolean urgent;
+
+        boolean take() {
+            return OWNER.compareAndSet(this, FREE, TAKEN);
+        }
+
+        void give() {
+            owner = FREE;
+        }
+
+        void write(int senderId, double x, double y, double fillLevel, double capacity,
+                   String areaType, boolean urgent) {
+            this.senderId = senderId;
+            this.x = x;
+            this.y = y;
+            this.fillLevel = fillLevel;
+            this.capacity = capacity;
+            this.areaType = areaType;
+            this.urgent = urgent;
+        }
+
+        @Override
+        public int getSenderId() {
+            return senderId;
+        }
+
+        @Override
+        public int getBinId() {
+            return binId;
+        }
+
+        @Override
+        public double getX() {
+            return x;
+        }
+
+        @Override
+        public double getY() {
+            return y;
+        }
+
+        @Override
+        public double getFillLevel() {
+            return fillLevel;
+        }
+
+        @Override
+        public double getCapacity() {
+            return capacity;
+        }
+
+        @Override
+        public String getAreaType() {
+            return areaType;
+        }
+
+        @Override
+        public boolean isUrgent() {
+            return urgent;
+        }
+    }
+
+    /**
+     * Create a new mailbox.
+     *
+     * @param capacity Number of slots, rounded up to a power of two of at least 2
+     */
+    public Mailbox(int capacity) {
+        if (capacity < 1 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Invalid mailbox capacity: " + capacity);
+        }
+        int size = Math.max(2, Integer.highestOneBit(capacity));
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new Slot[size];
+        this.sequences = new AtomicLongArray(size);
+        this.latest = new AtomicIntegerArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Send the status of a bin. Safe to call from any thread.
+     *
+     * @param type BIN_BROADCAST or BIN_INFO
+     * @param senderId ID of the sender agent
+     * @param binId ID of the bin
+     * @param x X coordinate of the bin
+     * @param y Y coordinate of the bin
+     * @param fillLevel Current amount of garbage in the bin
+     * @param capacity Maximum capacity of the bin
+     * @param areaType Area type of the bin
+     * @param urgent Whether the bin is urgently full
+     */
+    public void sendStatus(MessageType type, int senderId, int binId, double x, double y,
+                           double fillLevel, double capacity, String areaType, boolean urgent) {
+        long position = claim();
+        if (position < 0) {
+            overflowCount.incrementAndGet();
+            if (!replace(type, senderId, binId, x, y, fillLevel, capacity, areaType, urgent)) {
+                droppedCount.incrementAndGet();
+            }
+            return;
+        }
+        Slot slot = slotAt(position);
+        slot.type = type;
+        slot.message = null;
+        slot.binId = binId;
+        slot.write(senderId, x, y, fillLevel, capacity, areaType, urgent);
+        publish(position);
+        latest.lazySet(binId & mask, (int) position & mask);
+    }
+
+    /**
+     * Send a message. Bin status messages are copied into the mailbox like
+     * sendStatus() does; other messages are stored by reference. Safe to call from any thread.
+     *
+     * @param message The message
+     */
+    public void send(Message message) {
+        if (message instanceof BinStatusMessage) {
+            BinStatusMessage status = (BinStatusMessage) message;
+            sendStatus(status.getType(), status.getSenderId(), status.getBinId(), status.getX(), status.getY(),
+                       status.getFillLevel(), status.getCapacity(), status.getAreaType(), status.isUrgent());
+            return;
+        }
+
+        long position = claim();
+        if (position < 0) {
+            overflowCount.incrementAndGet();
+            overflow.add(message);
+            return;
+        }
+        Slot slot = slotAt(position);
+        slot.type = message.getType();
+        slot.message = message;
+        publish(position);
+    }
+
+    /**
+     * Take every message out of the mailbox and hand it to the consumer.
+     * Must only be called by the owner of the mailbox.
+     *
+     * @param consumer Receiver of the messages
+     */
+    public void drain(Consumer consumer) {
+        while (sequences.get((int) head & mask) == head + 1) {
+            Slot slot = acquire();
+            if (slot.message != null) {
+                Message message = slot.message;
+                slot.message = null;
+                release(slot);
+                consumer.message(message);
+            } else {
+                consumer.status(slot.type, slot);
+                release(slot);
+            }
+        }
+
+        if (!overflow.isEmpty()) {
+            Message message;
+            while ((message = overflow.poll()) != null) {
+                consumer.message(message);
+            }
+        }
+    }
+
+    /**
+     * Drop every message in the mailbox. Must only be called by the owner of the mailbox.
+     */
+    public void clear() {
+        while (sequences.get((int) head & mask) == head + 1) {
+            Slot slot = acquire();
+            slot.message = null;
+            release(slot);
+        }
+        overflow.clear();
+    }
+
+    public boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1 && overflow.isEmpty();
+    }
+
+    /**
+     * Get the number of slots.
+     */
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Get the number of messages that didn't fit into the ring so far.
+     */
+    public long getOverflowCount() {
+        return overflowCount.get();
+    }
+
+    /**
+     * Get the number of bin statuses dropped so far because the ring was full
+     * and held no status of the same bin.
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Claim the position at the tail.
+     *
+     * @return The position, or -1 if the ring is full
+     */
+    private long claim() {
+        long position = tail.get();
+        while (true) {
+            long difference = sequences.get((int) position & mask) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return -1;  // The slot still holds a message from one lap ago
+            } else {
+                position = tail.get();  // Another sender took this position
+            }
+        }
+    }
+
+    /**
+     * Get the slot at a claimed position, creating it on first use.
+     * Only the sender that claimed the position may call this.
+     */
+    private Slot slotAt(long position) {
+        int index = (int) position & mask;
+        Slot slot = slots[index];
+        if (slot == null) {
+            slot = new Slot();
+            slots[index] = slot;  // Seen by the consumer through the sequence published after it
+        }
+        return slot;
+    }
+
+    /**
+     * Make a written position visible to the consumer.
+     */
+    private void publish(long position) {
+        sequences.set((int) position & mask, position + 1);
+    }
+
+    /**
+     * Take the written slot at the head for reading.
+     */
+    private Slot acquire() {
+        // Unpublish the slot first, so that no more senders pick it to replace a status in
+        sequences.set((int) head & mask, head);
+        Slot slot = slots[(int) head & mask];
+        // Wait out a sender already replacing the status, which takes no longer than writing a slot
+        while (!slot.take()) {
+            Thread.onSpinWait();
+        }
+        return slot;
+    }
+
+    /**
+     * Hand the slot at the head back to the senders for the next lap.
+     */
+    private void release(Slot slot) {
+        slot.give();
+        sequences.set((int) head & mask, head + slots.length);
+        head++;
+    }
+
+    /**
+     * Replace the unread status of a bin in the ring with a newer one.
+     *
+     * @return Whether the bin had a status waiting that could be replaced
+     */
+    private boolean replace(MessageType type, int senderId, int binId, double x, double y,
+                            double fillLevel, double capacity, String areaType, boolean urgent) {
+        int index = latest.get(binId & mask);
+        long sequence = sequences.get(index);
+        if (((sequence - 1) & mask) != index) {
+            return false;  // Not written since it was last read
+        }
+        Slot slot = slots[index];
+        if (!slot.take()) {
+            return false;  // Being read, or replaced by another sender
+        }
+        // Check again now that the consumer can't take the slot; any unread status of the bin will do
+        boolean waiting = sequences.get(index) == sequence && slot.message == null && slot.binId == binId;
+        if (waiting) {
+            if (type == MessageType.BIN_BROADCAST) {
+                slot.type = type;
+            }
+            slot.write(senderId, x, y, fillLevel, capacity, areaType, urgent);
+        }
+        slot.give();
+        return waiting;
+    }
+}
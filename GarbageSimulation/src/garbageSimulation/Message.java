@@ -2,40 +2,36 @@ package garbageSimulation;
 
 /**
  * Message class for communication between agents in the garbage collection simulation.
+ * Subclasses carry their payload as typed fields, so no formatting or parsing is
+ * needed to send or receive a message. Messages are immutable and the same instance
+ * may be delivered to several recipients.
  */
-public class Message {
-    private int senderId;
-    private String type;
-    private String content;
-    private long timestamp;
+public abstract class Message {
+    private final int senderId;
+    private final MessageType type;
+    private final long timestamp;
 
     /**
      * Create a new message.
      *
      * @param senderId ID of the sender agent
-     * @param type Type of message (e.g., "BIN_BROADCAST", "VEHICLE_STATUS")
-     * @param content String content of the message
+     * @param type Type of message
      */
-    public Message(int senderId, String type, String content) {
+    protected Message(int senderId, MessageType type) {
         this.senderId = senderId;
         this.type = type;
-        this.content = content;
-        this.timestamp = System.currentTimeMillis();
+        this.timestamp = SimulationClock.now();
     }
 
     public int getSenderId() {
         return senderId;
     }
 
-    public String getType() {
+    public MessageType getType() {
         return type;
     }
 
-    public String getContent() {
-        return content;
-    }
-
     public long getTimestamp() {
         return timestamp;
     }
-}
\ No newline at end of file
+}
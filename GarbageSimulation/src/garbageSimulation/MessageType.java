@@ -0,0 +1,15 @@
+package garbageSimulation;
+
+/**
+ * Types of messages exchanged between agents.
+ */
+public enum MessageType {
+    /** Status broadcast sent by a bin to the vehicles in range */
+    BIN_BROADCAST,
+    
+    /** Bin status relayed from one vehicle to another */
+    BIN_INFO,
+    
+    /** Bin broadcasts published to one cell of the broadcast bus, delivered to its subscribers */
+    CELL_DIGEST
+}
@@ -0,0 +1,107 @@
+package garbageSimulation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import repast.simphony.engine.schedule.IAction;
+
+/**
+ * Steps the whole fleet in two phases on a fork-join pool.
+ * 
+ * Before the sense phase the coordinator releases the assignments and cooldowns
+ * that have expired, on the calling thread. In the sense phase every vehicle
+ * then processes its messages and scores candidate bins in parallel, reading a
+ * consistent snapshot: nothing moves, nothing is claimed and nothing is released
+ * while it runs. In the act phase the claim intents are committed in order of
+ * score (ties broken by vehicle ID), movements are planned in parallel, and the
+ * resulting moves and messages are applied in vehicle ID order.
+ * 
+ * Every decision depends only on the snapshot and on each vehicle's own seeded
+ * random stream, so a run gives the same results for a given seed no matter how
+ * many threads the pool has; with one thread it is the sequential execution of
+ * the two-phase schedule.
+ * 
+ * The two-phase schedule is a different model from the default one, where each
+ * vehicle senses, claims and moves in turn and sees the moves and claims of the
+ * vehicles before it. Turning parallelStepping on therefore changes the results
+ * of a run compared with the default mode, for any number of threads.
+ */
+public class ParallelFleetStepper implements IAction {
+    private final List<Vehicle> vehicles;
+    private final TaskCoordinator coordinator;
+    private final ForkJoinPool pool;
+    
+    // Vehicles that move during the current tick
+    private final List<Vehicle> moving = new ArrayList<>();
+    private final List<Vehicle> claiming = new ArrayList<>();
+    
+    // Highest score first, then lowest vehicle ID
+    private static final Comparator<Vehicle> CLAIM_ORDER = 
+        Comparator.comparingDouble(Vehicle::getClaimIntentScore).reversed()
+                  .thenComparingInt(Vehicle::getId);
+    
+    /**
+     * Create a new stepper.
+     * 
+     * @param registry Registry of the vehicles to step
+     * @param threads Number of worker threads, or 0 to use all available processors
+     */
+    public ParallelFleetStepper(AgentRegistry registry, int threads) {
+        this.vehicles = new ArrayList<>(registry.getVehicles());
+        this.vehicles.sort(Comparator.comparingInt(Vehicle::getId));
+        this.coordinator = registry.getCoordinator();
+        this.pool = new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * Step every vehicle once.
+     */
+    @Override
+    public void execute() {
+        // Release what has expired first, so that sensing only reads the coordinator
+        coordinator.expireStaleAssignments();
+        
+        // Sense phase: read messages and pick candidate bins in parallel
+        pool.submit(() -> vehicles.parallelStream().forEach(Vehicle::sense)).join();
+        
+        // Act phase: commit claims, highest score first, so conflicts resolve the same way every run
+        claiming.clear();
+        for (Vehicle vehicle : vehicles) {
+            if (vehicle.hasClaimIntent()) {
+                claiming.add(vehicle);
+            }
+        }
+        claiming.sort(CLAIM_ORDER);
+        for (Vehicle vehicle : claiming) {
+            vehicle.commitClaimIntent();
+        }
+        
+        // Advance collection and depot state in ID order
+        moving.clear();
+        for (Vehicle vehicle : vehicles) {
+            vehicle.beginStep();
+            if (vehicle.prepareMove()) {
+                moving.add(vehicle);
+            }
+        }
+        
+        // Plan movement and outgoing information in parallel
+        pool.submit(() -> moving.parallelStream().forEach(vehicle -> {
+            vehicle.planMovement();
+            vehicle.prepareSharedInfo();
+        })).join();
+        
+        // Apply moves and deliver messages in ID order
+        for (Vehicle vehicle : moving) {
+            vehicle.completeStep();
+        }
+    }
+    
+    /**
+     * Stop the worker threads.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
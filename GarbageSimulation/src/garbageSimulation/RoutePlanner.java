@@ -0,0 +1,354 @@
+package garbageSimulation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Plans multi-bin collection tours for a vehicle.
+ *
+ * A tour starts at the vehicle, visits a set of bins whose total garbage fits in
+ * the vehicle's remaining capacity and ends at the depot. Tours are built with the
+ * Clarke-Wright savings heuristic and then improved with 2-opt and or-opt moves.
+ * Distances are measured on the wrap-around space, the same way vehicles drive.
+ *
+ * The planner holds no state of its own, so one instance can be shared by every
+ * vehicle, including vehicles stepped in parallel.
+ */
+public class RoutePlanner {
+    // Only the nearest candidates are considered when building a tour
+    private static final int MAX_CANDIDATES = 25;
+
+    // Longest run of stops moved as a block by or-opt
+    private static final int MAX_SEGMENT = 3;
+
+    // Smallest length change accepted as an improvement
+    private static final double MIN_GAIN = 1e-9;
+
+    private final double width;
+    private final double height;
+
+    /**
+     * A bin to visit on a tour.
+     */
+    public static class Stop {
+        final int binId;
+        final double x;
+        final double y;
+        final double demand;  // Garbage expected to be collected at the bin
+
+        public Stop(int binId, double x, double y, double demand) {
+            this.binId = binId;
+            this.x = x;
+            this.y = y;
+            this.demand = demand;
+        }
+
+        public int getBinId() {
+            return binId;
+        }
+
+        public double getDemand() {
+            return demand;
+        }
+    }
+
+    /**
+     * Create a new route planner.
+     *
+     * @param width Width of the space
+     * @param height Height of the space
+     */
+    public RoutePlanner(double width, double height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Plan a tour from the vehicle to the depot.
+     * Of the tours the savings heuristic builds, the one collecting the most garbage
+     * per unit of distance is returned.
+     *
+     * @param startX X coordinate of the vehicle
+     * @param startY Y coordinate of the vehicle
+     * @param depotX X coordinate of the depot
+     * @param depotY Y coordinate of the depot
+     * @param candidates Bins that may be visited
+     * @param capacity Remaining capacity of the vehicle
+     * @return Stops of the tour in visiting order (empty if no bin fits)
+     */
+    public List<Stop> planTour(double startX, double startY, double depotX, double depotY,
+                               List<Stop> candidates, double capacity) {
+        // Keep the nearest candidates that fit on their own
+        List<Stop> stops = new ArrayList<>();
+        for (Stop stop : candidates) {
+            if (stop.demand <= capacity) {
+                stops.add(stop);
+            }
+        }
+        if (stops.size() > MAX_CANDIDATES) {
+            stops.sort(Comparator.comparingDouble(stop -> distance(startX, startY, stop.x, stop.y)));
+            stops = new ArrayList<>(stops.subList(0, MAX_CANDIDATES));
+        }
+        int n = stops.size();
+        if (n == 0) {
+            return new ArrayList<>();
+        }
+
+        // Start with one tour per stop
+        List<List<Integer>> tours = new ArrayList<>(n);
+        int[] tourOf = new int[n];
+        double[] tourDemand = new double[n];
+        for (int i = 0; i < n; i++) {
+            List<Integer> tour = new ArrayList<>();
+            tour.add(i);
+            tours.add(tour);
+            tourOf[i] = i;
+            tourDemand[i] = stops.get(i).demand;
+        }
+
+        // Saving of driving straight from the end of i's tour to the start of j's tour
+        double[] savings = new double[n * n];
+        List<Integer> pairs = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Stop a = stops.get(i);
+            for (int j = 0; j < n; j++) {
+                if (i == j) continue;
+                Stop b = stops.get(j);
+                double saving = distance(a.x, a.y, depotX, depotY) + distance(startX, startY, b.x, b.y) -
+                                distance(a.x, a.y, b.x, b.y);
+                if (saving > MIN_GAIN) {
+                    savings[i * n + j] = saving;
+                    pairs.add(i * n + j);
+                }
+            }
+        }
+        pairs.sort((p, q) -> Double.compare(savings[q], savings[p]));
+
+        // Merge tours in order of decreasing savings while they fit
+        for (int pair : pairs) {
+            int i = pair / n;
+            int j = pair % n;
+            int first = tourOf[i];
+            int second = tourOf[j];
+            if (first == second || tourDemand[first] + tourDemand[second] > capacity) {
+                continue;
+            }
+            List<Integer> firstTour = tours.get(first);
+            List<Integer> secondTour = tours.get(second);
+            if (firstTour.get(firstTour.size() - 1) != i || secondTour.get(0) != j) {
+                continue;
+            }
+
+            firstTour.addAll(secondTour);
+            tourDemand[first] += tourDemand[second];
+            for (int stop : secondTour) {
+                tourOf[stop] = first;
+            }
+            tours.set(second, null);
+        }
+
+        // Improve every tour and keep the most efficient one
+        List<Stop> best = null;
+        double bestEfficiency = Double.NEGATIVE_INFINITY;
+        for (int t = 0; t < n; t++) {
+            if (tours.get(t) == null) continue;
+            List<Stop> tour = new ArrayList<>();
+            for (int stop : tours.get(t)) {
+                tour.add(stops.get(stop));
+            }
+            improve(tour, startX, startY, depotX, depotY);
+            double efficiency = tourDemand[t] / (tourLength(tour, startX, startY, depotX, depotY) + 1.0);
+            if (efficiency > bestEfficiency) {
+                bestEfficiency = efficiency;
+                best = tour;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Insert a stop into a tour where it adds the least distance, then improve the tour.
+     *
+     * @param tour Stops of the tour, changed in place
+     * @param stop Stop to insert
+     * @param startX X coordinate the tour starts from
+     * @param startY Y coordinate the tour starts from
+     * @param depotX X coordinate of the depot
+     * @param depotY Y coordinate of the depot
+     * @param capacity Capacity available for the whole tour
+     * @return true if the stop fits and was inserted
+     */
+    public boolean insertStop(List<Stop> tour, Stop stop, double startX, double startY,
+                              double depotX, double depotY, double capacity) {
+        double demand = stop.demand;
+        for (Stop planned : tour) {
+            demand += planned.demand;
+        }
+        if (demand > capacity) {
+            return false;
+        }
+
+        int bestPosition = 0;
+        double bestIncrease = Double.POSITIVE_INFINITY;
+        int n = tour.size();
+        for (int position = 0; position <= n; position++) {
+            Stop previous = (position > 0) ? tour.get(position - 1) : null;
+            Stop next = (position < n) ? tour.get(position) : null;
+            double beforeX = (previous != null) ? previous.x : startX;
+            double beforeY = (previous != null) ? previous.y : startY;
+            double afterX = (next != null) ? next.x : depotX;
+            double afterY = (next != null) ? next.y : depotY;
+            double increase = distance(beforeX, beforeY, stop.x, stop.y) +
+                              distance(stop.x, stop.y, afterX, afterY) -
+                              distance(beforeX, beforeY, afterX, afterY);
+            if (increase < bestIncrease) {
+                bestIncrease = increase;
+                bestPosition = position;
+            }
+        }
+
+        tour.add(bestPosition, stop);
+        improve(tour, startX, startY, depotX, depotY);
+        return true;
+    }
+
+    /**
+     * Improve a tour with 2-opt and or-opt moves until neither finds a shorter tour.
+     * The start and the depot stay fixed at the two ends.
+     *
+     * @param tour Stops of the tour, changed in place
+     */
+    public void improve(List<Stop> tour, double startX, double startY, double depotX, double depotY) {
+        boolean improved = true;
+        while (improved) {
+            improved = twoOpt(tour, startX, startY, depotX, depotY) ||
+                       orOpt(tour, startX, startY, depotX, depotY);
+        }
+    }
+
+    /**
+     * Get the length of a tour from the start through all stops to the depot.
+     */
+    public double tourLength(List<Stop> tour, double startX, double startY, double depotX, double depotY) {
+        double length = 0;
+        double x = startX;
+        double y = startY;
+        for (Stop stop : tour) {
+            length += distance(x, y, stop.x, stop.y);
+            x = stop.x;
+            y = stop.y;
+        }
+        return length + distance(x, y, depotX, depotY);
+    }
+
+    /**
+     * Shortest distance between two points on the wrap-around space.
+     */
+    public double distance(double x1, double y1, double x2, double y2) {
+        double dx = Math.abs(x1 - x2);
+        double dy = Math.abs(y1 - y2);
+        if (dx > width / 2) dx = width - dx;
+        if (dy > height / 2) dy = height - dy;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * Apply the first 2-opt move (reversing a run of stops) that shortens the tour.
+     *
+     * @return true if the tour was changed
+     */
+    private boolean twoOpt(List<Stop> tour, double startX, double startY, double depotX, double depotY) {
+        int n = tour.size();
+        for (int i = 0; i < n - 1; i++) {
+            Stop previous = (i > 0) ? tour.get(i - 1) : null;
+            double beforeX = (previous != null) ? previous.x : startX;
+            double beforeY = (previous != null) ? previous.y : startY;
+            Stop first = tour.get(i);
+            for (int j = i + 1; j < n; j++) {
+                Stop last = tour.get(j);
+                Stop next = (j + 1 < n) ? tour.get(j + 1) : null;
+                double afterX = (next != null) ? next.x : depotX;
+                double afterY = (next != null) ? next.y : depotY;
+                double change = distance(beforeX, beforeY, last.x, last.y) +
+                                distance(first.x, first.y, afterX, afterY) -
+                                distance(beforeX, beforeY, first.x, first.y) -
+                                distance(last.x, last.y, afterX, afterY);
+                if (change < -MIN_GAIN) {
+                    Collections.reverse(tour.subList(i, j + 1));
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Apply the first or-opt move (moving a run of up to three stops elsewhere,
+     * possibly reversed) that shortens the tour.
+     *
+     * @return true if the tour was changed
+     */
+    private boolean orOpt(List<Stop> tour, double startX, double startY, double depotX, double depotY) {
+        int n = tour.size();
+        for (int length = 1; length <= Math.min(MAX_SEGMENT, n - 1); length++) {
+            for (int i = 0; i + length <= n; i++) {
+                Stop first = tour.get(i);
+                Stop last = tour.get(i + length - 1);
+                Stop previous = (i > 0) ? tour.get(i - 1) : null;
+                Stop next = (i + length < n) ? tour.get(i + length) : null;
+                double beforeX = (previous != null) ? previous.x : startX;
+                double beforeY = (previous != null) ? previous.y : startY;
+                double afterX = (next != null) ? next.x : depotX;
+                double afterY = (next != null) ? next.y : depotY;
+
+                // Length saved by taking the run out
+                double removed = distance(beforeX, beforeY, first.x, first.y) +
+                                 distance(last.x, last.y, afterX, afterY) -
+                                 distance(beforeX, beforeY, afterX, afterY);
+
+                // Try every gap outside the run, in the tour without the run
+                int restSize = n - length;
+                for (int gap = 0; gap <= restSize; gap++) {
+                    if (gap == i) continue; // Putting it back where it was
+                    Stop gapPrevious = (gap > 0) ? withoutRun(tour, i, length, gap - 1) : null;
+                    Stop gapNext = (gap < restSize) ? withoutRun(tour, i, length, gap) : null;
+                    double gapBeforeX = (gapPrevious != null) ? gapPrevious.x : startX;
+                    double gapBeforeY = (gapPrevious != null) ? gapPrevious.y : startY;
+                    double gapAfterX = (gapNext != null) ? gapNext.x : depotX;
+                    double gapAfterY = (gapNext != null) ? gapNext.y : depotY;
+                    double bridge = distance(gapBeforeX, gapBeforeY, gapAfterX, gapAfterY);
+
+                    double forward = distance(gapBeforeX, gapBeforeY, first.x, first.y) +
+                                     distance(last.x, last.y, gapAfterX, gapAfterY) - bridge;
+                    double reversed = distance(gapBeforeX, gapBeforeY, last.x, last.y) +
+                                      distance(first.x, first.y, gapAfterX, gapAfterY) - bridge;
+
+                    if (Math.min(forward, reversed) - removed < -MIN_GAIN) {
+                        // Take the run out and put it into the gap of what is left
+                        List<Stop> run = new ArrayList<>(tour.subList(i, i + length));
+                        if (reversed < forward) {
+                            Collections.reverse(run);
+                        }
+                        tour.subList(i, i + length).clear();
+                        tour.addAll(gap, run);
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stop at a position of the tour with a run of stops taken out, without building that tour.
+     *
+     * @param start Position of the run in the tour
+     * @param length Number of stops in the run
+     * @param position Position in the tour without the run
+     */
+    private static Stop withoutRun(List<Stop> tour, int start, int length, int position) {
+        return tour.get((position < start) ? position : position + length);
+    }
+}
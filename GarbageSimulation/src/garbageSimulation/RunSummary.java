@@ -0,0 +1,92 @@
+package garbageSimulation;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Outcome of a simulation run, written as a one-row CSV file at the end of the run
+ * so that the runs of a parameter sweep can be merged by SweepRunner.
+ */
+public class RunSummary {
+    // Columns of the summary, in the order they are written
+    public static final String[] COLUMNS = {
+        "ticks", "vehicles", "bins", "collections", "garbage_collected",
+        "distance_traveled", "mean_bin_fill_pct", "full_bins"
+    };
+
+    private final AgentRegistry registry;
+
+    /**
+     * Create a new run summary.
+     *
+     * @param registry Registry of the agents of the run
+     */
+    public RunSummary(AgentRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Collect the metrics of the run as it stands.
+     *
+     * @param ticks Number of ticks run
+     * @return Values in the order of COLUMNS
+     */
+    public String[] collect(double ticks) {
+        int collections = 0;
+        double collected = 0;
+        double distance = 0;
+        for (Vehicle vehicle : registry.getVehicles()) {
+            collections += vehicle.getCollectionsCompleted();
+            collected += vehicle.getTotalCollected();
+            distance += vehicle.getTotalDistanceTraveled();
+        }
+
+        double totalFill = 0;
+        int fullBins = 0;
+        for (GarbageBin bin : registry.getBins()) {
+            totalFill += bin.getFillPercentage();
+            if (bin.isFull()) {
+                fullBins++;
+            }
+        }
+        int binCount = registry.getBins().size();
+        double meanFill = (binCount > 0) ? totalFill / binCount : 0;
+
+        return new String[] {
+            format(ticks),
+            Integer.toString(registry.getVehicles().size()),
+            Integer.toString(binCount),
+            Integer.toString(collections),
+            format(collected),
+            format(distance),
+            format(meanFill),
+            Integer.toString(fullBins)
+        };
+    }
+
+    /**
+     * Write the header and the metrics of the run to a CSV file.
+     *
+     * @param file File to write, replaced if it exists
+     * @param ticks Number of ticks run
+     * @throws IOException If the file can't be written
+     */
+    public void write(Path file, double ticks) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println(String.join(",", COLUMNS));
+            out.println(String.join(",", collect(ticks)));
+        }
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.4f", value);
+    }
+}
@@ -0,0 +1,38 @@
+package garbageSimulation;
+
+/**
+ * Plain loop implementation of DistanceKernel, used when the Vector API isn't available.
+ * Distances are wrapped the same way as in SpatialGrid.
+ */
+final class ScalarDistanceKernel implements DistanceKernel {
+    private final double width;
+    private final double height;
+    
+    ScalarDistanceKernel(double width, double height) {
+        this.width = width;
+        this.height = height;
+    }
+    
+    @Override
+    public void distancesSquared(double x, double y, double[] xs, double[] ys, int count, double[] result) {
+        for (int i = 0; i < count; i++) {
+            result[i] = distanceSquared(x, y, xs[i], ys[i]);
+        }
+    }
+    
+    @Override
+    public void targetScores(double x, double y, double[] xs, double[] ys, double[] priorities, int count, 
+                             double[] result) {
+        for (int i = 0; i < count; i++) {
+            result[i] = 1000.0 / (distanceSquared(x, y, xs[i], ys[i]) + 1.0) * priorities[i];
+        }
+    }
+    
+    double distanceSquared(double x1, double y1, double x2, double y2) {
+        double dx = Math.abs(x1 - x2);
+        double dy = Math.abs(y1 - y2);
+        if (dx > width / 2) dx = width - dx;
+        if (dy > height / 2) dy = height - dy;
+        return dx * dx + dy * dy;
+    }
+}
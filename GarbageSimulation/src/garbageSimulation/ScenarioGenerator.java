@@ -0,0 +1,148 @@
+package garbageSimulation;
+
+import java.util.Random;
+import repast.simphony.context.Context;
+import repast.simphony.space.continuous.ContinuousSpace;
+
+/**
+ * Generates large city layouts for the simulation.
+ *
+ * The city is divided into zones around random centers. Commercial zones are small
+ * and dense, residential zones are wider, and low density zones are wider still, so
+ * their bins are sparse but still clustered. Bin capacities follow the same ranges
+ * per area type as the default scenario. Vehicles start at random positions.
+ *
+ * All locations are computed up front and each agent is placed once, through a
+ * PresetLocationAdder, as it is added to the context.
+ */
+public class ScenarioGenerator {
+    // Share of the bins in each area type
+    private static final double COMMERCIAL_SHARE = 0.2;
+    private static final double RESIDENTIAL_SHARE = 0.5;
+
+    // Share of the zones that are commercial and low density; the others are residential
+    private static final double COMMERCIAL_ZONE_SHARE = 0.3;
+    private static final double LOW_DENSITY_ZONE_SHARE = 0.2;
+
+    // Spread of the bins around a zone center, relative to the average zone spacing
+    private static final double COMMERCIAL_SPREAD = 0.12;
+    private static final double RESIDENTIAL_SPREAD = 0.3;
+    private static final double LOW_DENSITY_SPREAD = 0.6;
+
+    private final double width;
+    private final double height;
+    private final int binCount;
+    private final int zoneCount;
+    private final long seed;
+
+    /**
+     * Create a new scenario generator.
+     *
+     * @param width Width of the space
+     * @param height Height of the space
+     * @param binCount Number of bins to create
+     * @param zoneCount Number of zones, at least 3 so there is one of each kind, or 0 to
+     *                  choose from the bin count
+     * @param seed Seed for the layout
+     */
+    public ScenarioGenerator(double width, double height, int binCount, int zoneCount, long seed) {
+        if (!(width > 0) || !(height > 0)) {
+            throw new IllegalArgumentException("World size must be positive: " + width + "x" + height);
+        }
+        if (binCount < 0) {
+            throw new IllegalArgumentException("Bin count must not be negative: " + binCount);
+        }
+        this.width = width;
+        this.height = height;
+        this.binCount = binCount;
+        this.zoneCount = Math.max(3, (zoneCount > 0) ? zoneCount : (int) Math.sqrt(binCount));
+        this.seed = seed;
+    }
+
+    /**
+     * Create the bins and vehicles and add them to the context and the registry.
+     *
+     * @param context Context to add the agents to
+     * @param space Space the agents are placed in
+     * @param adder Adder of the space, used to place each agent as it is added
+     * @param registry Registry of the agents, whose configuration sets the number of vehicles
+     */
+    public void populate(Context<Object> context, ContinuousSpace<Object> space,
+                         PresetLocationAdder<Object> adder, AgentRegistry registry) {
+        long startTime = System.nanoTime();
+        Random random = new Random(seed);
+
+        // Lay out the zones, with at least one of each kind
+        double spacing = Math.sqrt(width * height / zoneCount);
+        int commercialZones = Math.max(1, Math.min(zoneCount - 2, (int) Math.round(zoneCount * COMMERCIAL_ZONE_SHARE)));
+        int lowDensityZones = Math.max(1, Math.min(zoneCount - commercialZones - 1, 
+                                                   (int) Math.round(zoneCount * LOW_DENSITY_ZONE_SHARE)));
+        int residentialZones = zoneCount - commercialZones - lowDensityZones;
+        double[] zoneX = new double[zoneCount];
+        double[] zoneY = new double[zoneCount];
+        for (int zone = 0; zone < zoneCount; zone++) {
+            zoneX[zone] = random.nextDouble() * width;
+            zoneY[zone] = random.nextDouble() * height;
+        }
+
+        // Place the bins: commercial zones come first in the zone arrays, then residential, then low density ones
+        double[] binX = new double[binCount];
+        double[] binY = new double[binCount];
+        String[] binArea = new String[binCount];
+        double[] binCapacity = new double[binCount];
+        for (int i = 0; i < binCount; i++) {
+            double kind = random.nextDouble();
+            if (kind < COMMERCIAL_SHARE) {
+                int zone = random.nextInt(commercialZones);
+                placeAround(random, zoneX[zone], zoneY[zone], spacing * COMMERCIAL_SPREAD, binX, binY, i);
+                binArea[i] = GarbageBin.AREA_COMMERCIAL;
+                binCapacity[i] = 100.0 + random.nextDouble() * 50.0;
+            } else if (kind < COMMERCIAL_SHARE + RESIDENTIAL_SHARE) {
+                int zone = commercialZones + random.nextInt(residentialZones);
+                placeAround(random, zoneX[zone], zoneY[zone], spacing * RESIDENTIAL_SPREAD, binX, binY, i);
+                binArea[i] = GarbageBin.AREA_RESIDENTIAL;
+                binCapacity[i] = 80.0 + random.nextDouble() * 20.0;
+            } else {
+                int zone = commercialZones + residentialZones + random.nextInt(lowDensityZones);
+                placeAround(random, zoneX[zone], zoneY[zone], spacing * LOW_DENSITY_SPREAD, binX, binY, i);
+                binArea[i] = GarbageBin.AREA_LOW_DENSITY;
+                binCapacity[i] = 60.0 + random.nextDouble() * 20.0;
+            }
+        }
+
+        for (int i = 0; i < binCount; i++) {
+            GarbageBin bin = new GarbageBin(space, registry, i + 1, binCapacity[i], binArea[i]);
+            adder.presetLocation(binX[i], binY[i]);
+            context.add(bin);
+            registry.addBin(bin);
+        }
+
+        // Create the vehicles at random positions
+        int vehicleCount = registry.getConfig().getVehicleCount();
+        for (int vehicleId = 1; vehicleId <= vehicleCount; vehicleId++) {
+            Vehicle vehicle = new Vehicle(space, registry, vehicleId, "Collector " + vehicleId, 1.0);
+            adder.presetLocation(random.nextDouble() * width, random.nextDouble() * height);
+            context.add(vehicle);
+            registry.addVehicle(vehicle);
+        }
+
+        if (EventLog.isInfoEnabled()) {
+            EventLog.info("Generated a %.0fx%.0f city with %d bins in %d zones and %d vehicles in %d ms",
+                          width, height, binCount, zoneCount, vehicleCount, (System.nanoTime() - startTime) / 1000000);
+        }
+    }
+
+    /**
+     * Place a bin at a normally distributed offset from a zone center, wrapped into the space.
+     */
+    private void placeAround(Random random, double centerX, double centerY, double spread,
+                             double[] x, double[] y, int index) {
+        x[index] = wrap(centerX + random.nextGaussian() * spread, width);
+        y[index] = wrap(centerY + random.nextGaussian() * spread, height);
+    }
+
+    private static double wrap(double value, double size) {
+        double wrapped = value % size;
+        return (wrapped < 0) ? wrapped + size : wrapped;
+    }
+}
@@ -0,0 +1,65 @@
+package garbageSimulation;
+
+import repast.simphony.engine.environment.RunEnvironment;
+import repast.simphony.engine.schedule.ISchedule;
+
+/**
+ * Time source for all timeouts and cooldowns in the simulation.
+ * Durations are expressed in milliseconds. By default the clock is driven by
+ * the Repast schedule, with each tick worth a fixed number of simulated
+ * milliseconds, so a run behaves the same no matter how fast ticks execute.
+ * The wall clock can be plugged in instead to get the old real-time behavior.
+ */
+public final class SimulationClock {
+    
+    /**
+     * Source of the current time in milliseconds.
+     */
+    public interface TimeSource {
+        long currentTimeMillis();
+    }
+    
+    // Simulated milliseconds that pass with every tick of the schedule
+    public static final long MILLIS_PER_TICK = 100;
+    
+    /** Time derived from the tick count of the current Repast schedule */
+    public static final TimeSource TICK_CLOCK = () -> {
+        RunEnvironment environment = RunEnvironment.getInstance();
+        ISchedule schedule = (environment != null) ? environment.getCurrentSchedule() : null;
+        if (schedule == null) {
+            return 0;
+        }
+        return (long) (Math.max(0, schedule.getTickCount()) * MILLIS_PER_TICK);
+    };
+    
+    /** Real time, as used before the simulation clock was introduced */
+    public static final TimeSource WALL_CLOCK = System::currentTimeMillis;
+    
+    private static volatile TimeSource source = TICK_CLOCK;
+    
+    private SimulationClock() {
+        // Static utility
+    }
+    
+    /**
+     * Get the current time from the active time source.
+     * 
+     * @return Current time in milliseconds
+     */
+    public static long now() {
+        return source.currentTimeMillis();
+    }
+    
+    /**
+     * Replace the active time source.
+     * 
+     * @param timeSource New time source
+     */
+    public static void setTimeSource(TimeSource timeSource) {
+        source = timeSource;
+    }
+    
+    public static TimeSource getTimeSource() {
+        return source;
+    }
+}
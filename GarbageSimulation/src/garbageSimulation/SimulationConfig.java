@@ -0,0 +1,80 @@
+package garbageSimulation;
+
+/**
+ * Model settings of one simulation run.
+ * Read from the run's parameters by the builder and handed to the agents
+ * through the registry, so runs with different settings never share state.
+ */
+public class SimulationConfig {
+    private final double broadcastRadius;
+    private final double fullnessThreshold;
+    private final long broadcastCooldown;
+    private final int collectionDuration;
+    private final int vehicleCount;
+    private final double vehicleCapacity;
+    private final long emptyCooldown;
+
+    /**
+     * Create a configuration with the default settings.
+     */
+    public SimulationConfig() {
+        this(20.0, 0.7, 5000, 10, 4, 150.0, 5000);
+    }
+
+    /**
+     * Create a new configuration.
+     *
+     * @param broadcastRadius Range of bin broadcasts (widened by half for urgent bins)
+     * @param fullnessThreshold Fill fraction (0 - 1) at which a bin starts broadcasting
+     * @param broadcastCooldown Minimum time between two broadcasts of a bin, in milliseconds
+     * @param collectionDuration Number of ticks a vehicle spends emptying a bin
+     * @param vehicleCount Number of collection vehicles
+     * @param vehicleCapacity Garbage a vehicle can carry
+     * @param emptyCooldown Time after emptying a bin before it may be assigned again, in milliseconds
+     */
+    public SimulationConfig(double broadcastRadius, double fullnessThreshold, long broadcastCooldown,
+                            int collectionDuration, int vehicleCount, double vehicleCapacity,
+                            long emptyCooldown) {
+        if (fullnessThreshold <= 0 || fullnessThreshold > 1) {
+            throw new IllegalArgumentException("Fullness threshold must be in (0, 1]: " + fullnessThreshold);
+        }
+        if (vehicleCount < 0) {
+            throw new IllegalArgumentException("Vehicle count must not be negative: " + vehicleCount);
+        }
+        this.broadcastRadius = broadcastRadius;
+        this.fullnessThreshold = fullnessThreshold;
+        this.broadcastCooldown = broadcastCooldown;
+        this.collectionDuration = collectionDuration;
+        this.vehicleCount = vehicleCount;
+        this.vehicleCapacity = vehicleCapacity;
+        this.emptyCooldown = emptyCooldown;
+    }
+
+    public double getBroadcastRadius() {
+        return broadcastRadius;
+    }
+
+    public double getFullnessThreshold() {
+        return fullnessThreshold;
+    }
+
+    public long getBroadcastCooldown() {
+        return broadcastCooldown;
+    }
+
+    public int getCollectionDuration() {
+        return collectionDuration;
+    }
+
+    public int getVehicleCount() {
+        return vehicleCount;
+    }
+
+    public double getVehicleCapacity() {
+        return vehicleCapacity;
+    }
+
+    public long getEmptyCooldown() {
+        return emptyCooldown;
+    }
+}
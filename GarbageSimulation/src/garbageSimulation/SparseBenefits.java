@@ -0,0 +1,192 @@
+package garbageSimulation;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Assignment problem for AuctionAssigner, stored as one short list of candidate
+ * objects per bidder instead of a full bidders x objects matrix.
+ *
+ * With n bidders, each bidder only needs its n best objects: if an optimal
+ * assignment gave a bidder anything worse, one of its n best would be left over
+ * (the other n - 1 bidders can't hold them all) and moving the bidder there
+ * would gain. So rows are cut to the n best allowed objects, which keeps the
+ * optimum and makes a solve cost the number of bidders squared, not the number
+ * of objects.
+ *
+ * One instance is kept per auction and refilled every solve, so its buffers are
+ * only allocated when a problem outgrows them.
+ */
+final class SparseBenefits {
+    // Objects: their IDs, for keeping prices and assignments between solves
+    private int objects = 0;
+    private int[] objectIds = new int[16];
+
+    // Bidders: their IDs, and the start of each row in the entry arrays
+    private int bidders = 0;
+    private int[] bidderIds = new int[16];
+    private int[] rowStart = new int[17];
+
+    // Entries of all rows, each row in order of object index
+    private int[] columns = new int[64];
+    private double[] benefits = new double[64];
+
+    // Min-heap of the entries kept while a row is filled, worst on top
+    private int[] heap = new int[16];
+
+    /**
+     * Start a new problem with no bidders and no objects.
+     */
+    void clear() {
+        objects = 0;
+        bidders = 0;
+        rowStart[0] = 0;
+    }
+
+    /**
+     * Add an object.
+     *
+     * @return Index of the object
+     */
+    int addObject(int objectId) {
+        if (objects == objectIds.length) {
+            objectIds = Arrays.copyOf(objectIds, objects * 2);
+        }
+        objectIds[objects] = objectId;
+        return objects++;
+    }
+
+    /**
+     * Add a bidder with the objects of highest benefit among the allowed ones.
+     * Objects with the same benefit are kept in order of index. The filter is
+     * only asked about objects that would make the list, so it may be costly.
+     *
+     * @param bidderId ID of the bidder, used to keep its assignment between solves
+     * @param row Benefit of each object, indexed like the objects added
+     * @param keep Most objects to keep
+     * @param allowed Whether the bidder may get the object at an index
+     */
+    void addBidder(int bidderId, double[] row, int keep, IntPredicate allowed) {
+        if (bidders == bidderIds.length) {
+            bidderIds = Arrays.copyOf(bidderIds, bidders * 2);
+            rowStart = Arrays.copyOf(rowStart, bidders * 2 + 1);
+        }
+        if (heap.length < keep) {
+            heap = new int[keep];
+        }
+
+        // Keep the best allowed objects in a min-heap
+        int kept = 0;
+        for (int j = 0; j < objects; j++) {
+            if (kept == keep && !(row[j] > row[heap[0]])) {
+                continue;
+            }
+            if (!allowed.test(j)) {
+                continue;
+            }
+            if (kept < keep) {
+                heap[kept] = j;
+                siftUp(row, kept++);
+            } else {
+                heap[0] = j;
+                siftDown(row, 0, kept);
+            }
+        }
+
+        // Append them in order of index
+        int start = rowStart[bidders];
+        ensureEntries(start + kept);
+        Arrays.sort(heap, 0, kept);
+        for (int k = 0; k < kept; k++) {
+            columns[start + k] = heap[k];
+            benefits[start + k] = row[heap[k]];
+        }
+        bidderIds[bidders] = bidderId;
+        rowStart[++bidders] = start + kept;
+    }
+
+    private void ensureEntries(int size) {
+        if (columns.length < size) {
+            int capacity = Math.max(size, columns.length * 2);
+            columns = Arrays.copyOf(columns, capacity);
+            benefits = Arrays.copyOf(benefits, capacity);
+        }
+    }
+
+    /**
+     * Check whether object a is worse than object b in a row: lower benefit, then higher index.
+     */
+    private static boolean worse(double[] row, int a, int b) {
+        return row[a] < row[b] || (row[a] == row[b] && a > b);
+    }
+
+    private void siftUp(double[] row, int slot) {
+        int index = heap[slot];
+        while (slot > 0) {
+            int parent = (slot - 1) / 2;
+            if (!worse(row, index, heap[parent])) {
+                break;
+            }
+            heap[slot] = heap[parent];
+            slot = parent;
+        }
+        heap[slot] = index;
+    }
+
+    private void siftDown(double[] row, int slot, int size) {
+        int index = heap[slot];
+        while (true) {
+            int child = 2 * slot + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && worse(row, heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!worse(row, heap[child], index)) {
+                break;
+            }
+            heap[slot] = heap[child];
+            slot = child;
+        }
+        heap[slot] = index;
+    }
+
+    int getBidderCount() {
+        return bidders;
+    }
+
+    int getObjectCount() {
+        return objects;
+    }
+
+    int getBidderId(int bidder) {
+        return bidderIds[bidder];
+    }
+
+    int getObjectId(int object) {
+        return objectIds[object];
+    }
+
+    /**
+     * Get the first entry of a bidder's row; the row ends where the next bidder's starts.
+     */
+    int rowStart(int bidder) {
+        return rowStart[bidder];
+    }
+
+    int rowEnd(int bidder) {
+        return rowStart[bidder + 1];
+    }
+
+    /**
+     * Get the object index of an entry.
+     */
+    int column(int entry) {
+        return columns[entry];
+    }
+
+    double benefit(int entry) {
+        return benefits[entry];
+    }
+}
@@ -0,0 +1,183 @@
+package garbageSimulation;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Uniform grid index over a toroidal (wrap-around) continuous space.
+ * Agents are bucketed by cell so radius queries only visit the cells that
+ * overlap the query circle instead of every agent in the context.
+ *
+ * @param <T> Type of agent stored in the grid
+ */
+public class SpatialGrid<T> {
+    private final double width;
+    private final double height;
+    private final int columns;
+    private final int rows;
+    private final double cellWidth;
+    private final double cellHeight;
+
+    // Cell contents, indexed by row * columns + column
+    private final List<List<Entry<T>>> cells;
+
+    // Entry for each indexed agent
+    private final Map<T, Entry<T>> entries = new IdentityHashMap<>();
+
+    /**
+     * Position record for an indexed agent.
+     */
+    private static class Entry<T> {
+        final T agent;
+        double x;
+        double y;
+        int cell;
+        int slot;   // Position of this entry inside its cell list
+
+        Entry(T agent) {
+            this.agent = agent;
+        }
+    }
+
+    /**
+     * Create a new grid.
+     *
+     * @param width Width of the space
+     * @param height Height of the space
+     * @param cellSize Minimum edge length of a cell (typically the most common query radius)
+     */
+    public SpatialGrid(double width, double height, double cellSize) {
+        this.width = width;
+        this.height = height;
+        this.columns = Math.max(1, (int) Math.floor(width / cellSize));
+        this.rows = Math.max(1, (int) Math.floor(height / cellSize));
+        this.cellWidth = width / columns;
+        this.cellHeight = height / rows;
+
+        this.cells = new ArrayList<>(columns * rows);
+        for (int i = 0; i < columns * rows; i++) {
+            cells.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Insert an agent or update its position.
+     *
+     * @param agent Agent to index
+     * @param x X coordinate of the agent
+     * @param y Y coordinate of the agent
+     */
+    public void update(T agent, double x, double y) {
+        int cell = cellIndex(x, y);
+        Entry<T> entry = entries.get(agent);
+
+        if (entry == null) {
+            entry = new Entry<>(agent);
+            entries.put(agent, entry);
+            addToCell(entry, cell);
+        } else if (entry.cell != cell) {
+            removeFromCell(entry);
+            addToCell(entry, cell);
+        }
+
+        entry.x = x;
+        entry.y = y;
+    }
+
+    /**
+     * Remove an agent from the grid.
+     *
+     * @param agent Agent to remove
+     */
+    public void remove(T agent) {
+        Entry<T> entry = entries.remove(agent);
+        if (entry != null) {
+            removeFromCell(entry);
+        }
+    }
+
+    /**
+     * Find all agents within a radius of a point, using wrapped distances.
+     *
+     * @param x X coordinate of the query point
+     * @param y Y coordinate of the query point
+     * @param radius Query radius
+     * @param result List the matching agents are added to
+     * @return The result list
+     */
+    public List<T> query(double x, double y, double radius, List<T> result) {
+        int firstColumn = (int) Math.floor((x - radius) / cellWidth);
+        int lastColumn = (int) Math.floor((x + radius) / cellWidth);
+        int firstRow = (int) Math.floor((y - radius) / cellHeight);
+        int lastRow = (int) Math.floor((y + radius) / cellHeight);
+
+        // A range spanning the whole torus must not visit a cell twice
+        if (lastColumn - firstColumn + 1 >= columns) {
+            firstColumn = 0;
+            lastColumn = columns - 1;
+        }
+        if (lastRow - firstRow + 1 >= rows) {
+            firstRow = 0;
+            lastRow = rows - 1;
+        }
+
+        double radiusSquared = radius * radius;
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            int wrappedRow = Math.floorMod(row, rows);
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int wrappedColumn = Math.floorMod(column, columns);
+                List<Entry<T>> cell = cells.get(wrappedRow * columns + wrappedColumn);
+
+                for (int i = 0; i < cell.size(); i++) {
+                    Entry<T> entry = cell.get(i);
+                    if (wrappedDistanceSquared(x, y, entry.x, entry.y) <= radiusSquared) {
+                        result.add(entry.agent);
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Squared shortest distance between two points on the torus.
+     */
+    public double wrappedDistanceSquared(double x1, double y1, double x2, double y2) {
+        double dx = Math.abs(x1 - x2);
+        double dy = Math.abs(y1 - y2);
+        if (dx > width / 2) dx = width - dx;
+        if (dy > height / 2) dy = height - dy;
+        return dx * dx + dy * dy;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private int cellIndex(double x, double y) {
+        int column = Math.floorMod((int) Math.floor(x / cellWidth), columns);
+        int row = Math.floorMod((int) Math.floor(y / cellHeight), rows);
+        return row * columns + column;
+    }
+
+    private void addToCell(Entry<T> entry, int cell) {
+        List<Entry<T>> list = cells.get(cell);
+        entry.cell = cell;
+        entry.slot = list.size();
+        list.add(entry);
+    }
+
+    private void removeFromCell(Entry<T> entry) {
+        // Swap the last entry into the freed slot so removal is O(1)
+        List<Entry<T>> list = cells.get(entry.cell);
+        Entry<T> last = list.remove(list.size() - 1);
+        if (last != entry) {
+            last.slot = entry.slot;
+            list.set(entry.slot, last);
+        }
+    }
+}
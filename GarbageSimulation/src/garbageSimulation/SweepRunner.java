@@ -0,0 +1,421 @@
+package garbageSimulation;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Headless runner for parameter sweeps on a single machine.
+ *
+ * Reads a Repast sweep file (such as batch/batch_params.xml), expands it into one
+ * run per combination of parameter values and replication, and runs them in
+ * parallel on all local cores. Every run is a separate Repast batch run in its own
+ * JVM, so runs share no state. Each run writes its outcome through RunSummary, and
+ * the outcomes are merged into one CSV file with a row per run.
+ *
+ * Parameters of type constant, list and number are supported. Every combination of
+ * the list and number parameters is run, nested or not, and each combination is
+ * repeated for the number of runs given on the sweep. Replications get consecutive
+ * random seeds starting at randomSeed (1 if the sweep doesn't set it).
+ *
+ * Usage:
+ * <pre>
+ * java -cp &lt;model and Repast classpath&gt; garbageSimulation.SweepRunner
+ *      [-params batch/batch_params.xml] [-scenario GarbageSimulation.rs]
+ *      [-out output/sweep_results.csv] [-work output/sweep_runs]
+ *      [-workers cores] [-jvmArgs "..."] [-main repast.simphony.batch.BatchMain]
+ * </pre>
+ * The JVM options of the runner itself are passed on to the runs unless -jvmArgs
+ * is given.
+ */
+public class SweepRunner {
+    private static final String DEFAULT_MAIN = "repast.simphony.batch.BatchMain";
+
+    // Tolerance for the end of number sweeps, so e.g. 0.1 steps reach 1.0
+    private static final BigDecimal STEP_TOLERANCE = new BigDecimal("1e-9");
+
+    private final Path paramsFile;
+    private final Path scenarioDir;
+    private final Path outputFile;
+    private final Path workDir;
+    private final int workers;
+    private final List<String> jvmArgs;
+    private final String mainClass;
+
+    /**
+     * A parameter of the sweep with the values it takes.
+     */
+    private static class SweepParameter {
+        final String name;
+        final String type;         // Repast constant type: number, boolean or string
+        final List<String> values;
+
+        SweepParameter(String name, String type, List<String> values) {
+            this.name = name;
+            this.type = type;
+            this.values = values;
+        }
+    }
+
+    /**
+     * One run of the sweep.
+     */
+    private static class SweepRun {
+        final int number;
+        final int replication;
+        final Map<String, String> values;  // Value of every parameter, by name
+
+        SweepRun(int number, int replication, Map<String, String> values) {
+            this.number = number;
+            this.replication = replication;
+            this.values = values;
+        }
+    }
+
+    /**
+     * Create a new sweep runner.
+     *
+     * @param paramsFile Sweep file to expand
+     * @param scenarioDir Scenario directory of the model (GarbageSimulation.rs)
+     * @param outputFile CSV file the outcomes are merged into
+     * @param workDir Directory for the sweep files, logs and outcomes of the single runs
+     * @param workers Number of runs at a time
+     * @param jvmArgs JVM options for the runs
+     * @param mainClass Main class that runs a single sweep file
+     */
+    public SweepRunner(Path paramsFile, Path scenarioDir, Path outputFile, Path workDir,
+                       int workers, List<String> jvmArgs, String mainClass) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Need at least one worker: " + workers);
+        }
+        this.paramsFile = paramsFile;
+        this.scenarioDir = scenarioDir;
+        this.outputFile = outputFile;
+        this.workDir = workDir;
+        this.workers = workers;
+        this.jvmArgs = jvmArgs;
+        this.mainClass = mainClass;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path paramsFile = Paths.get("batch", "batch_params.xml");
+        Path scenarioDir = Paths.get("GarbageSimulation.rs");
+        Path outputFile = Paths.get("output", "sweep_results.csv");
+        Path workDir = Paths.get("output", "sweep_runs");
+        int workers = Runtime.getRuntime().availableProcessors();
+        List<String> jvmArgs = inheritedJvmArgs();
+        String mainClass = DEFAULT_MAIN;
+
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "-params":
+                    paramsFile = Paths.get(value);
+                    break;
+                case "-scenario":
+                    scenarioDir = Paths.get(value);
+                    break;
+                case "-out":
+                    outputFile = Paths.get(value);
+                    break;
+                case "-work":
+                    workDir = Paths.get(value);
+                    break;
+                case "-workers":
+                    workers = Integer.parseInt(value);
+                    break;
+                case "-jvmArgs":
+                    jvmArgs = value.trim().isEmpty() ? new ArrayList<>() : Arrays.asList(value.trim().split("\\s+"));
+                    break;
+                case "-main":
+                    mainClass = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + option);
+            }
+        }
+
+        SweepRunner runner = new SweepRunner(paramsFile, scenarioDir, outputFile, workDir,
+                                             workers, jvmArgs, mainClass);
+        int failed = runner.run();
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    /**
+     * Run the whole sweep and merge the outcomes.
+     *
+     * @return Number of runs that failed
+     * @throws Exception If the sweep file can't be read or the results can't be written
+     */
+    public int run() throws Exception {
+        Element sweep = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                                              .parse(paramsFile.toFile()).getDocumentElement();
+        int replications = Integer.parseInt(attribute(sweep, "runs", "1"));
+        List<SweepParameter> parameters = new ArrayList<>();
+        readParameters(sweep, parameters);
+        List<SweepRun> runs = expand(parameters, replications);
+
+        Files.createDirectories(workDir);
+        System.out.printf("Running %d runs on %d workers%n", runs.size(), workers);
+        long startTime = System.nanoTime();
+
+        // Run the single runs in parallel, each in its own JVM
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (SweepRun run : runs) {
+                results.add(pool.submit(() -> runSingle(run, parameters)));
+            }
+            int failed = 0;
+            for (int i = 0; i < runs.size(); i++) {
+                if (!results.get(i).get()) {
+                    failed++;
+                }
+            }
+
+            int merged = merge(runs, parameters);
+            System.out.printf("Finished %d runs in %.1f s, %d failed; results in %s%n",
+                              merged, (System.nanoTime() - startTime) / 1e9, failed, outputFile);
+            return failed;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Read the parameters of a sweep element, including nested parameters.
+     */
+    private static void readParameters(Element parent, List<SweepParameter> parameters) {
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node.getNodeType() != Node.ELEMENT_NODE || !node.getNodeName().equals("parameter")) {
+                continue;
+            }
+            Element element = (Element) node;
+            String name = element.getAttribute("name");
+            String type = element.getAttribute("type");
+            List<String> values = new ArrayList<>();
+
+            switch (type) {
+                case "constant":
+                    values.add(element.getAttribute("value"));
+                    parameters.add(new SweepParameter(name, attribute(element, "constant_type", "number"), values));
+                    break;
+                case "list":
+                    for (String value : element.getAttribute("values").trim().split("\\s+")) {
+                        values.add(value);
+                    }
+                    parameters.add(new SweepParameter(name, listType(element.getAttribute("value_type")), values));
+                    break;
+                case "number":
+                    BigDecimal start = new BigDecimal(element.getAttribute("start"));
+                    BigDecimal end = new BigDecimal(element.getAttribute("end"));
+                    BigDecimal step = new BigDecimal(element.getAttribute("step"));
+                    if (step.signum() <= 0) {
+                        throw new IllegalArgumentException("Step of " + name + " must be positive");
+                    }
+                    for (BigDecimal value = start; value.compareTo(end.add(STEP_TOLERANCE)) <= 0; value = value.add(step)) {
+                        values.add(value.toPlainString());
+                    }
+                    parameters.add(new SweepParameter(name, "number", values));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported type " + type + " of parameter " + name);
+            }
+
+            readParameters(element, parameters);
+        }
+    }
+
+    /**
+     * Expand the parameters into single runs, the last parameter varying fastest.
+     */
+    private static List<SweepRun> expand(List<SweepParameter> parameters, int replications) {
+        List<Map<String, String>> combinations = new ArrayList<>();
+        combinations.add(new LinkedHashMap<>());
+        for (SweepParameter parameter : parameters) {
+            List<Map<String, String>> next = new ArrayList<>();
+            for (Map<String, String> combination : combinations) {
+                for (String value : parameter.values) {
+                    Map<String, String> extended = new LinkedHashMap<>(combination);
+                    extended.put(parameter.name, value);
+                    next.add(extended);
+                }
+            }
+            combinations = next;
+        }
+
+        List<SweepRun> runs = new ArrayList<>();
+        for (Map<String, String> combination : combinations) {
+            long baseSeed = Long.parseLong(combination.getOrDefault("randomSeed", "1"));
+            for (int replication = 0; replication < replications; replication++) {
+                Map<String, String> values = new LinkedHashMap<>(combination);
+                values.put("randomSeed", Long.toString(baseSeed + replication));
+                values.putIfAbsent("logLevel", "OFF");
+                runs.add(new SweepRun(runs.size() + 1, replication + 1, values));
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Run a single run of the sweep and wait for it to finish.
+     *
+     * @return true if the run finished and wrote its outcome
+     */
+    private boolean runSingle(SweepRun run, List<SweepParameter> parameters) throws IOException, InterruptedException {
+        Path runParams = workDir.resolve("run_" + run.number + ".xml");
+        Path summary = summaryFile(run);
+        Path log = workDir.resolve("run_" + run.number + ".log");
+        Files.deleteIfExists(summary);
+
+        // Sweep file with a single combination of constants
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(runParams, StandardCharsets.UTF_8))) {
+            out.println("<?xml version=\"1.0\"?>");
+            out.println("<sweep runs=\"1\">");
+            for (Map.Entry<String, String> entry : run.values.entrySet()) {
+                writeConstant(out, entry.getKey(), typeOf(entry.getKey(), parameters), entry.getValue());
+            }
+            writeConstant(out, "summaryFile", "string", summary.toAbsolutePath().toString());
+            out.println("</sweep>");
+        }
+
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(mainClass);
+        command.add("-params");
+        command.add(runParams.toAbsolutePath().toString());
+        command.add(scenarioDir.toAbsolutePath().toString());
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                                                     .redirectOutput(log.toFile()).start();
+        int exitCode = process.waitFor();
+        boolean succeeded = exitCode == 0 && Files.exists(summary);
+        if (!succeeded) {
+            System.err.printf("Run %d failed (exit code %d), see %s%n", run.number, exitCode, log);
+        }
+        return succeeded;
+    }
+
+    /**
+     * Merge the outcomes of the runs into the output file.
+     *
+     * @return Number of runs merged
+     */
+    private int merge(List<SweepRun> runs, List<SweepParameter> parameters) throws IOException {
+        List<String> names = new ArrayList<>(runs.isEmpty() ? new ArrayList<>() : runs.get(0).values.keySet());
+        Path parent = outputFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        int merged = 0;
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8))) {
+            List<String> header = new ArrayList<>();
+            header.add("run");
+            header.add("replication");
+            header.addAll(names);
+            header.addAll(Arrays.asList(RunSummary.COLUMNS));
+            out.println(String.join(",", header));
+
+            for (SweepRun run : runs) {
+                Path summary = summaryFile(run);
+                if (!Files.exists(summary)) {
+                    continue;
+                }
+                List<String> lines = Files.readAllLines(summary, StandardCharsets.UTF_8);
+                if (lines.size() < 2) {
+                    continue;
+                }
+
+                List<String> row = new ArrayList<>();
+                row.add(Integer.toString(run.number));
+                row.add(Integer.toString(run.replication));
+                for (String name : names) {
+                    row.add(run.values.get(name));
+                }
+                row.add(lines.get(1));
+                out.println(String.join(",", row));
+                merged++;
+            }
+        }
+        return merged;
+    }
+
+    private Path summaryFile(SweepRun run) {
+        return workDir.resolve("run_" + run.number + ".csv");
+    }
+
+    private static void writeConstant(PrintWriter out, String name, String type, String value) {
+        out.printf("  <parameter name=\"%s\" type=\"constant\" constant_type=\"%s\" value=\"%s\"/>%n",
+                   escape(name), type, escape(value));
+    }
+
+    private static String typeOf(String name, List<SweepParameter> parameters) {
+        for (SweepParameter parameter : parameters) {
+            if (parameter.name.equals(name)) {
+                return parameter.type;
+            }
+        }
+        return name.equals("logLevel") ? "string" : "number";
+    }
+
+    /**
+     * Constant type for the value type of a list parameter.
+     */
+    private static String listType(String valueType) {
+        switch (valueType.toLowerCase()) {
+            case "boolean":
+                return "boolean";
+            case "string":
+            case "java.lang.string":
+                return "string";
+            default:
+                return "number";
+        }
+    }
+
+    private static String attribute(Element element, String name, String defaultValue) {
+        String value = element.getAttribute(name);
+        return value.isEmpty() ? defaultValue : value;
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("\"", "&quot;").replace("<", "&lt;");
+    }
+
+    /**
+     * JVM options the runner was started with, minus debugger agents that can't be shared.
+     */
+    private static List<String> inheritedJvmArgs() {
+        List<String> args = new ArrayList<>();
+        for (String arg : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (!arg.startsWith("-agentlib:jdwp") && !arg.startsWith("-Xrunjdwp")) {
+                args.add(arg);
+            }
+        }
+        return args;
+    }
+}
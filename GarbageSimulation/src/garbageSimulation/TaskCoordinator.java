@@ -1,52 +1,133 @@
 package garbageSimulation;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
 import repast.simphony.space.continuous.NdPoint;
+import garbageSimulation.BinKnowledge.BinInfo;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.IntPredicate;
 
 /**
  * Central coordinator for task allocation in the garbage collection system.
  * This class handles the global coordination of bin assignments to vehicles.
+ * 
+ * The coordinator is lock-free: each bin's assignment is an immutable claim
+ * that moves through its states (claimed, being serviced, released) by atomic
+ * operations on a concurrent map, so vehicles stepping in parallel never
+ * serialize on a shared monitor.
+ * 
+ * Stale assignments and expired cooldowns are found through expiry queues
+ * rather than by scanning every entry. Both timeouts are fixed for the run and
+ * the clock never goes backwards, so entries are queued in deadline order and
+ * only the entries that are actually due are ever looked at.
+ * 
+ * A vehicle choosing its next bin hands over all its candidates at once:
+ * claimBestBin() skips every bin it couldn't get and claims the best of the
+ * rest, so one call replaces an availability check per candidate followed by
+ * a request that may still be refused.
+ * 
+ * In batch assignment mode vehicles don't claim bins themselves. Instead
+ * assignBatch() is run once per tick and assigns all idle vehicles to open
+ * bins at once, maximizing the total target score with an auction.
+ * 
+ * Each run has its own coordinator, held by the run's agent registry, so
+ * runs in the same JVM never share assignment state.
  */
 public class TaskCoordinator {
-    // Singleton instance
-    private static TaskCoordinator instance = null;
-    
-    // Map bin IDs to assigned vehicle IDs
-    private Map<Integer, Integer> binAssignments = new HashMap<>();
-    
-    // Track which bins are currently being serviced
-    private Set<Integer> binsBeingServiced = new HashSet<>();
+    // Map bin IDs to their current claim (absent when the bin is free)
+    private final ConcurrentHashMap<Integer, Claim> claims = new ConcurrentHashMap<>();
     
     // Track recently emptied bins (to avoid immediate reassignment)
-    private Map<Integer, Long> recentlyEmptiedBins = new HashMap<>();
-    private static final long EMPTY_COOLDOWN = 5000; // 5 seconds
+    private final ConcurrentHashMap<Integer, Long> recentlyEmptiedBins = new ConcurrentHashMap<>();
+    private final long emptyCooldown;
+    
+    // Fill fraction at which bins ask to be emptied
+    private final double fullnessThreshold;
     
-    // Track assignment times to detect stale assignments
-    private Map<Integer, Long> assignmentTimes = new HashMap<>();
+    // Assignments older than this are considered stale
     private static final long ASSIGNMENT_TIMEOUT = 20000; // 20 seconds
     
+    // Claims and emptied bins in the order their timeouts expire
+    private final ConcurrentLinkedQueue<Claim> assignmentExpiries = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<EmptiedBin> cooldownExpiries = new ConcurrentLinkedQueue<>();
+    private final Object expiryLock = new Object();
+    
     // Track vehicle-bin assignments historically
-    private Map<String, Integer> assignmentHistory = new HashMap<>(); // key: "vehicleId-binId", value: count
+    private static final long HISTORY_RETENTION = 600000; // Forget pairs untouched for 10 minutes
+    private final AssignmentHistory assignmentHistory = new AssignmentHistory(HISTORY_RETENTION);
     private static final int MAX_REPEATED_ASSIGNMENTS = 3; // Maximum times a vehicle can be assigned to same bin
     
+    // Batch assignment state
+    private volatile boolean batchAssignment = false;
+    private AuctionAssigner auction = new AuctionAssigner();
+    private final List<Vehicle> idleVehicles = new ArrayList<>();
+    private final List<GarbageBin> openBins = new ArrayList<>();
+    
+    // Buffers of the batch and staging auctions, reused from tick to tick: the bins laid out
+    // for scoring, the scores of one vehicle, and the vehicles' candidate lists
+    private double[] binXs = new double[0];
+    private double[] binYs = new double[0];
+    private double[] binPriorities = new double[0];
+    private double[] binDemands = new double[0];
+    private double[] scoreRow = new double[0];
+    private final SparseBenefits benefits = new SparseBenefits();
+    
+    // Predictive dispatch: idle vehicles wait near bins forecast to fill up soon
+    private static final long PREDICTION_HORIZON = 10000; // 10 seconds
+    private static final double PREDICTION_DEVIATIONS = 1.0; // Err toward early crossings
+    private final AuctionAssigner stagingAuction = new AuctionAssigner();
+    private final List<GarbageBin> predictedBins = new ArrayList<>();
+    
     /**
-     * Private constructor for singleton pattern
+     * Immutable assignment of a bin to a vehicle.
+     * State transitions replace one claim with another atomically, so a claim
+     * object is never modified after it has been published.
      */
-    private TaskCoordinator() {
-        // Private constructor
+    private static final class Claim {
+        final int binId;
+        final int vehicleId;
+        final long assignedTime;
+        final boolean beingServiced;
+        
+        Claim(int binId, int vehicleId, long assignedTime, boolean beingServiced) {
+            this.binId = binId;
+            this.vehicleId = vehicleId;
+            this.assignedTime = assignedTime;
+            this.beingServiced = beingServiced;
+        }
+        
+        Claim toServiced() {
+            return new Claim(binId, vehicleId, assignedTime, true);
+        }
+        
+        boolean isSameAssignment(Claim other) {
+            return other != null && other.vehicleId == vehicleId && other.assignedTime == assignedTime;
+        }
     }
     
     /**
-     * Get singleton instance
+     * Entry in the cooldown expiry queue.
      */
-    public static synchronized TaskCoordinator getInstance() {
-        if (instance == null) {
-            instance = new TaskCoordinator();
+    private static final class EmptiedBin {
+        final int binId;
+        final long emptyTime;
+        
+        EmptiedBin(int binId, long emptyTime) {
+            this.binId = binId;
+            this.emptyTime = emptyTime;
         }
-        return instance;
+    }
+    
+    /**
+     * Create a new coordinator.
+     * 
+     * @param config Settings of the run
+     */
+    public TaskCoordinator(SimulationConfig config) {
+        this.emptyCooldown = config.getEmptyCooldown();
+        this.fullnessThreshold = config.getFullnessThreshold();
     }
     
     /**
@@ -56,38 +137,157 @@ public class TaskCoordinator {
      * @param binId ID of the bin to request
      * @return true if bin was assigned, false if already assigned or being serviced
      */
-    public synchronized boolean requestBinAssignment(int vehicleId, int binId) {
+    public boolean requestBinAssignment(int vehicleId, int binId) {
         // Check for and clean up stale assignments first
         cleanupStaleAssignments();
         
         // Check if bin is already assigned or serviced
-        if (binAssignments.containsKey(binId) || binsBeingServiced.contains(binId)) {
+        if (claims.containsKey(binId)) {
             return false;
         }
         
         // Check if recently emptied
         Long emptyTime = recentlyEmptiedBins.get(binId);
-        if (emptyTime != null && System.currentTimeMillis() - emptyTime < EMPTY_COOLDOWN) {
+        if (emptyTime != null && SimulationClock.now() - emptyTime < emptyCooldown) {
             return false;
         }
         
         // Check if this vehicle has been repeatedly assigned to this bin and failed
-        String assignmentKey = vehicleId + "-" + binId;
-        int assignmentCount = assignmentHistory.getOrDefault(assignmentKey, 0);
+        int assignmentCount = assignmentHistory.get(vehicleId, binId);
         if (assignmentCount >= MAX_REPEATED_ASSIGNMENTS) {
-            System.out.println("TaskCoordinator: Rejecting assignment of Bin " + binId + 
-                             " to Vehicle " + vehicleId + " due to repeated failed assignments");
+            EventLog.warn("TaskCoordinator: Rejecting assignment of Bin %d to Vehicle %d due to repeated failed assignments",
+                          binId, vehicleId);
             return false;
         }
         
-        // Assign bin to vehicle
-        binAssignments.put(binId, vehicleId);
-        assignmentTimes.put(binId, System.currentTimeMillis());
-        assignmentHistory.put(assignmentKey, assignmentCount + 1);
-        System.out.println("TaskCoordinator: Bin " + binId + " assigned to Vehicle " + vehicleId);
+        // Assign bin to vehicle, unless another vehicle claimed it in the meantime
+        return tryClaim(vehicleId, binId);
+    }
+    
+    /**
+     * Claim the best bin a vehicle can get among its candidates, scored like
+     * Vehicle.targetScore() up to rounding (see DistanceKernel) with ties going
+     * to the lowest bin ID.
+     * Bins that are claimed, in their cooldown, too full for the vehicle or
+     * refused to it too often are skipped. If another vehicle claims the chosen
+     * bin first, the next best one is tried.
+     * 
+     * @param vehicleId ID of the requesting vehicle
+     * @param position Current position of the vehicle
+     * @param freeCapacity Capacity the vehicle has left
+     * @param candidates Bins the vehicle knows about
+     * @param block The vehicle's block the candidates are scored in
+     * @return The bin that was claimed, or null if none could be
+     */
+    BinInfo claimBestBin(int vehicleId, NdPoint position, double freeCapacity, 
+                         Collection<BinInfo> candidates, CandidateBlock block) {
+        cleanupStaleAssignments();
+        rankCandidates(position, freeCapacity, candidates, block);
+        while (true) {
+            BinInfo best = nextAvailable(vehicleId, block);
+            if (best == null || tryClaim(vehicleId, best.id)) {
+                return best;
+            }
+            // Claimed by another vehicle in the meantime, so the next best one is tried
+        }
+    }
+    
+    /**
+     * Find the bin claimBestBin() would claim, without claiming it.
+     * Only reads the coordinator: stale assignments are left for expireStaleAssignments()
+     * to release, so vehicles sensing in parallel all see the same claims.
+     * 
+     * @param vehicleId ID of the requesting vehicle
+     * @param position Current position of the vehicle
+     * @param freeCapacity Capacity the vehicle has left
+     * @param candidates Bins the vehicle knows about
+     * @param block The vehicle's block the candidates are scored in, which holds the best score afterwards
+     * @return The best bin, or null if the vehicle could get none
+     */
+    BinInfo findBestBin(int vehicleId, NdPoint position, double freeCapacity, 
+                        Collection<BinInfo> candidates, CandidateBlock block) {
+        rankCandidates(position, freeCapacity, candidates, block);
+        return nextAvailable(vehicleId, block);
+    }
+    
+    /**
+     * Collect the candidates that fit the vehicle into its block and score them all in one pass.
+     * 
+     * The scores depend on the vehicle's position, so they are worked out anew for each
+     * lookup rather than kept in an index; the store of known bins is bounded, which
+     * bounds this pass. The coordinator's own checks are left to nextAvailable().
+     */
+    private void rankCandidates(NdPoint position, double freeCapacity, 
+                                Collection<BinInfo> candidates, CandidateBlock block) {
+        block.clear();
+        for (BinInfo bin : candidates) {
+            if (bin.fillLevel <= freeCapacity) {
+                block.add(bin);
+            }
+        }
+        block.rank(position.getX(), position.getY());
+    }
+    
+    /**
+     * Take ranked candidates best first until one is unclaimed, out of its cooldown
+     * and not refused to the vehicle too often.
+     * 
+     * @return That bin, or null if none is left
+     */
+    private BinInfo nextAvailable(int vehicleId, CandidateBlock block) {
+        long currentTime = SimulationClock.now();
+        BinInfo bin;
+        while ((bin = block.next()) != null) {
+            if (claims.containsKey(bin.id)) {
+                continue;
+            }
+            Long emptyTime = recentlyEmptiedBins.get(bin.id);
+            if (emptyTime != null && currentTime - emptyTime < emptyCooldown) {
+                continue;
+            }
+            if (assignmentHistory.get(vehicleId, bin.id) >= MAX_REPEATED_ASSIGNMENTS) {
+                continue;
+            }
+            return bin;
+        }
+        return null;
+    }
+    
+    /**
+     * Assign a bin to a vehicle if no other vehicle holds it.
+     * 
+     * @return true if the bin was assigned
+     */
+    private boolean tryClaim(int vehicleId, int binId) {
+        Claim claim = new Claim(binId, vehicleId, SimulationClock.now(), false);
+        if (claims.putIfAbsent(binId, claim) != null) {
+            return false;
+        }
+        assignmentExpiries.add(claim);
+        assignmentHistory.increment(vehicleId, binId, claim.assignedTime);
+        EventLog.info("TaskCoordinator: Bin %d assigned to Vehicle %d", binId, vehicleId);
         return true;
     }
     
+    /**
+     * Request several bin assignments, such as the stops of a planned tour.
+     * Not atomic: each bin is requested on its own, so other vehicles may claim
+     * some of the bins in between and only part of them may be assigned.
+     * 
+     * @param vehicleId ID of the requesting vehicle
+     * @param binIds IDs of the bins to request
+     * @return IDs of the bins that were assigned, in request order
+     */
+    public List<Integer> requestBinAssignments(int vehicleId, List<Integer> binIds) {
+        List<Integer> assigned = new ArrayList<>();
+        for (int binId : binIds) {
+            if (requestBinAssignment(vehicleId, binId)) {
+                assigned.add(binId);
+            }
+        }
+        return assigned;
+    }
+    
     /**
      * Mark a bin as being serviced.
      * 
@@ -95,15 +295,19 @@ public class TaskCoordinator {
      * @param binId ID of the bin being serviced
      * @return true if operation was successful
      */
-    public synchronized boolean markBinBeingServiced(int vehicleId, int binId) {
-        // Check if bin is assigned to this vehicle
-        Integer assignedVehicle = binAssignments.get(binId);
-        if (assignedVehicle != null && assignedVehicle == vehicleId) {
-            binsBeingServiced.add(binId);
-            System.out.println("TaskCoordinator: Bin " + binId + " now being serviced by Vehicle " + vehicleId);
-            return true;
+    public boolean markBinBeingServiced(int vehicleId, int binId) {
+        while (true) {
+            // Check if bin is assigned to this vehicle
+            Claim claim = claims.get(binId);
+            if (claim == null || claim.vehicleId != vehicleId) {
+                return false;
+            }
+            if (claim.beingServiced || claims.replace(binId, claim, claim.toServiced())) {
+                EventLog.info("TaskCoordinator: Bin %d now being serviced by Vehicle %d", binId, vehicleId);
+                return true;
+            }
+            // The claim changed concurrently; re-read it
         }
-        return false;
     }
     
     /**
@@ -112,36 +316,35 @@ public class TaskCoordinator {
      * @param vehicleId ID of the vehicle that was assigned to the bin
      * @param binId ID of the bin to release
      */
-    public synchronized void releaseBin(int vehicleId, int binId) {
+    public void releaseBin(int vehicleId, int binId) {
         // Check if bin is assigned to this vehicle
-        Integer assignedVehicle = binAssignments.get(binId);
-        if (assignedVehicle != null && assignedVehicle == vehicleId) {
-            binAssignments.remove(binId);
-            binsBeingServiced.remove(binId);
-            assignmentTimes.remove(binId);
-            recentlyEmptiedBins.put(binId, System.currentTimeMillis());
+        Claim claim = claims.get(binId);
+        if (claim != null && claim.vehicleId == vehicleId && claims.remove(binId, claim)) {
+            long emptyTime = SimulationClock.now();
+            recentlyEmptiedBins.put(binId, emptyTime);
+            cooldownExpiries.add(new EmptiedBin(binId, emptyTime));
             
             // Reset the assignment history for successful collection
-            String assignmentKey = vehicleId + "-" + binId;
-            assignmentHistory.put(assignmentKey, 0);
+            assignmentHistory.set(vehicleId, binId, 0, emptyTime);
             
-            System.out.println("TaskCoordinator: Bin " + binId + " released by Vehicle " + vehicleId);
+            EventLog.info("TaskCoordinator: Bin %d released by Vehicle %d", binId, vehicleId);
         }
     }
     
     /**
      * Force release a bin assignment (for stale assignments)
      * 
-     * @param binId ID of the bin to force release
+     * @param staleClaim The stale claim; nothing is released if the bin has been released
+     *                   or claimed again since
      */
-    private synchronized void forceReleaseBin(int binId) {
-        Integer vehicleId = binAssignments.get(binId);
-        if (vehicleId != null) {
-            System.out.println("TaskCoordinator: Force releasing stale assignment of Bin " + binId + 
-                             " from Vehicle " + vehicleId);
-            binAssignments.remove(binId);
-            binsBeingServiced.remove(binId);
-            assignmentTimes.remove(binId);
+    private void forceReleaseBin(Claim staleClaim) {
+        int binId = staleClaim.binId;
+        Claim claim = claims.get(binId);
+        
+        // The claim may have been marked serviced since, which replaces the object but keeps the assignment
+        if (staleClaim.isSameAssignment(claim) && claims.remove(binId, claim)) {
+            EventLog.warn("TaskCoordinator: Force releasing stale assignment of Bin %d from Vehicle %d",
+                          binId, claim.vehicleId);
         }
     }
     
@@ -151,23 +354,175 @@ public class TaskCoordinator {
      * 
      * @param binId ID of the bin to force release all assignments for
      */
-    public synchronized void forceReleaseAllBinAssignments(int binId) {
-        // Check if bin is assigned to a vehicle
-        if (binAssignments.containsKey(binId)) {
-            Integer vehicleId = binAssignments.get(binId);
-            System.out.println("TaskCoordinator: Forced release of all assignments for Bin " + binId);
-            
-            // Release the assignment
-            binAssignments.remove(binId);
-            binsBeingServiced.remove(binId);
-            assignmentTimes.remove(binId);
+    public void forceReleaseAllBinAssignments(int binId) {
+        // Release the assignment if the bin is assigned to a vehicle
+        Claim claim = claims.remove(binId);
+        if (claim != null) {
+            EventLog.warn("TaskCoordinator: Forced release of all assignments for Bin %d", binId);
             
             // Mark this as a problematic assignment to avoid repeating
-            if (vehicleId != null) {
-                String assignmentKey = vehicleId + "-" + binId;
-                assignmentHistory.put(assignmentKey, MAX_REPEATED_ASSIGNMENTS);
+            assignmentHistory.set(claim.vehicleId, binId, MAX_REPEATED_ASSIGNMENTS, SimulationClock.now());
+        }
+    }
+    
+    /**
+     * Enable or disable batch assignment mode.
+     * 
+     * @param enabled true if bins are assigned by assignBatch() instead of by vehicle requests
+     */
+    public void setBatchAssignment(boolean enabled) {
+        batchAssignment = enabled;
+        auction = new AuctionAssigner();
+    }
+    
+    public boolean isBatchAssignment() {
+        return batchAssignment;
+    }
+    
+    /**
+     * Assign idle vehicles to open bins, maximizing the total target score.
+     * Runs once per tick in batch assignment mode, before the vehicles step.
+     * Only the bins the registry lists as active are looked at, so the cost doesn't
+     * grow with the bins below the threshold and lazy bins among them aren't caught up.
+     * 
+     * @param vehicles All vehicles of the simulation
+     * @param registry Registry of the bins
+     */
+    public void assignBatch(List<Vehicle> vehicles, AgentRegistry registry) {
+        cleanupStaleAssignments();
+        
+        // Collect the vehicles waiting for a target
+        idleVehicles.clear();
+        for (Vehicle vehicle : vehicles) {
+            if (vehicle.isAwaitingAssignment()) {
+                idleVehicles.add(vehicle);
+            }
+        }
+        
+        // Collect the full bins nobody is assigned to, in order of ID
+        openBins.clear();
+        for (int binId = registry.nextActiveBinId(0); binId >= 0; binId = registry.nextActiveBinId(binId + 1)) {
+            GarbageBin bin = registry.getBin(binId);
+            if (bin.isFull() && !bin.isBeingServiced() && !claims.containsKey(bin.getId()) && 
+                !wasRecentlyEmptied(bin.getId())) {
+                openBins.add(bin);
             }
         }
+        
+        if (idleVehicles.isEmpty() || openBins.isEmpty()) {
+            return;
+        }
+        
+        // Score the open bins the same way vehicles score their targets; the bin takes its fill level
+        layOutBins(openBins);
+        for (int j = 0; j < openBins.size(); j++) {
+            GarbageBin bin = openBins.get(j);
+            double fillPercentage = bin.getFillPercentage();
+            binPriorities[j] = Vehicle.targetPriority(fillPercentage, fillPercentage >= 90.0);
+            binDemands[j] = bin.getFillLevel();
+        }
+        for (Vehicle vehicle : idleVehicles) {
+            int vehicleId = vehicle.getId();
+            addCandidates(vehicle, openBins.size(), 
+                          j -> assignmentHistory.get(vehicleId, benefits.getObjectId(j)) < MAX_REPEATED_ASSIGNMENTS);
+        }
+        
+        // Claim and hand out the bins of the solution
+        int[] assignment = auction.solve(benefits);
+        for (int i = 0; i < idleVehicles.size(); i++) {
+            int j = assignment[i];
+            if (j >= 0 && requestBinAssignment(idleVehicles.get(i).getId(), benefits.getObjectId(j))) {
+                idleVehicles.get(i).assignBin(openBins.get(j), openBins.get(j).getLocation());
+            }
+        }
+    }
+    
+    /**
+     * Lay out bins for scoring and start a new auction problem with them as its objects.
+     * The caller fills in the priority and demand of each bin.
+     */
+    private void layOutBins(List<GarbageBin> bins) {
+        int count = bins.size();
+        if (binXs.length < count) {
+            int capacity = Math.max(count, binXs.length * 2);
+            binXs = new double[capacity];
+            binYs = new double[capacity];
+            binPriorities = new double[capacity];
+            binDemands = new double[capacity];
+            scoreRow = new double[capacity];
+        }
+        benefits.clear();
+        for (int j = 0; j < count; j++) {
+            GarbageBin bin = bins.get(j);
+            NdPoint location = bin.getLocation();
+            binXs[j] = location.getX();
+            binYs[j] = location.getY();
+            benefits.addObject(bin.getId());
+        }
+    }
+    
+    /**
+     * Score the laid out bins from a vehicle in one pass and add the vehicle to the
+     * auction with the best of them it has room for. With as many kept as there are
+     * idle vehicles, the auction's solution is as good as with every bin.
+     * 
+     * @param vehicle The vehicle
+     * @param count Number of bins laid out
+     * @param allowed Further check of a bin by index, only made for bins that would be kept
+     */
+    private void addCandidates(Vehicle vehicle, int count, IntPredicate allowed) {
+        vehicle.scoreTargets(binXs, binYs, binPriorities, count, scoreRow);
+        benefits.addBidder(vehicle.getId(), scoreRow, idleVehicles.size(), 
+                           j -> vehicle.hasCapacityFor(binDemands[j]) && allowed.test(j));
+    }
+    
+    /**
+     * Send idle vehicles toward the bins forecast to cross the fullness threshold soon,
+     * so a vehicle is already close when the bin starts broadcasting.
+     * Nothing is claimed; each idle vehicle gets at most one staging point, and
+     * vehicles left without a predicted bin have theirs cleared.
+     * 
+     * @param vehicles All vehicles of the simulation
+     * @param bins All bins of the simulation
+     */
+    public void prepositionIdleVehicles(List<Vehicle> vehicles, List<GarbageBin> bins) {
+        idleVehicles.clear();
+        for (Vehicle vehicle : vehicles) {
+            if (vehicle.isAwaitingAssignment()) {
+                idleVehicles.add(vehicle);
+            }
+        }
+        if (idleVehicles.isEmpty()) {
+            return;
+        }
+        
+        // Collect the bins expected to cross the threshold within the horizon
+        long deadline = SimulationClock.now() + PREDICTION_HORIZON;
+        predictedBins.clear();
+        for (GarbageBin bin : bins) {
+            if (!bin.isFull() && !bin.isBeingServiced() && !claims.containsKey(bin.getId()) && 
+                bin.predictThresholdCrossing(PREDICTION_DEVIATIONS) <= deadline) {
+                predictedBins.add(bin);
+            }
+        }
+        
+        // Spread the idle vehicles over the predicted bins
+        layOutBins(predictedBins);
+        for (int j = 0; j < predictedBins.size(); j++) {
+            GarbageBin bin = predictedBins.get(j);
+            binPriorities[j] = Vehicle.targetPriority(bin.getFillPercentage(), false);
+            // The bin is at least at the fullness threshold by the time it is collected
+            binDemands[j] = bin.getCapacity() * fullnessThreshold;
+        }
+        for (Vehicle vehicle : idleVehicles) {
+            addCandidates(vehicle, predictedBins.size(), j -> true);
+        }
+        
+        int[] assignment = stagingAuction.solve(benefits);
+        for (int i = 0; i < idleVehicles.size(); i++) {
+            int j = assignment[i];
+            idleVehicles.get(i).setStagingPoint(j >= 0 ? predictedBins.get(j).getLocation() : null);
+        }
     }
     
     /**
@@ -177,9 +532,9 @@ public class TaskCoordinator {
      * @param binId ID of the bin
      * @return true if bin is assigned to this vehicle
      */
-    public synchronized boolean isBinAssignedToVehicle(int vehicleId, int binId) {
-        Integer assignedVehicle = binAssignments.get(binId);
-        return assignedVehicle != null && assignedVehicle == vehicleId;
+    public boolean isBinAssignedToVehicle(int vehicleId, int binId) {
+        Claim claim = claims.get(binId);
+        return claim != null && claim.vehicleId == vehicleId;
     }
     
     /**
@@ -188,11 +543,30 @@ public class TaskCoordinator {
      * @param binId ID of the bin
      * @return true if bin is available
      */
-    public synchronized boolean isBinAvailable(int binId) {
+    public boolean isBinAvailable(int binId) {
         // Clean up stale assignments first
         cleanupStaleAssignments();
         
-        return !binAssignments.containsKey(binId) && !binsBeingServiced.contains(binId);
+        return !claims.containsKey(binId);
+    }
+    
+    /**
+     * Check if a bin is available without releasing stale assignments first.
+     * Only reads the coordinator, so it can be called while vehicles sense in parallel.
+     * 
+     * @param binId ID of the bin
+     * @return true if no vehicle holds the bin
+     */
+    public boolean isBinUnclaimed(int binId) {
+        return !claims.containsKey(binId);
+    }
+    
+    /**
+     * Release stale assignments and expired cooldowns that are due by now.
+     * Called once before vehicles sense in parallel, since the sense phase only reads.
+     */
+    public void expireStaleAssignments() {
+        cleanupStaleAssignments();
     }
     
     /**
@@ -201,40 +575,41 @@ public class TaskCoordinator {
      * @param binId ID of the bin
      * @return true if bin was emptied within the cooldown period
      */
-    public synchronized boolean wasRecentlyEmptied(int binId) {
+    public boolean wasRecentlyEmptied(int binId) {
         Long emptyTime = recentlyEmptiedBins.get(binId);
-        return emptyTime != null && System.currentTimeMillis() - emptyTime < EMPTY_COOLDOWN;
+        return emptyTime != null && SimulationClock.now() - emptyTime < emptyCooldown;
     }
     
     /**
-     * Clean up stale assignments
+     * Clean up stale assignments and expired cooldowns.
+     * Only looks at the heads of the expiry queues, so it costs nothing when nothing is due.
      */
-    private synchronized void cleanupStaleAssignments() {
-        // Find stale assignments
-        long currentTime = System.currentTimeMillis();
-        Set<Integer> staleBins = new HashSet<>();
-        
-        for (Map.Entry<Integer, Long> entry : assignmentTimes.entrySet()) {
-            if (currentTime - entry.getValue() > ASSIGNMENT_TIMEOUT) {
-                staleBins.add(entry.getKey());
-            }
-        }
-        
-        // Force release stale assignments
-        for (Integer binId : staleBins) {
-            forceReleaseBin(binId);
+    private void cleanupStaleAssignments() {
+        long currentTime = SimulationClock.now();
+        if (!isDue(assignmentExpiries.peek(), currentTime) && !isDue(cooldownExpiries.peek(), currentTime)) {
+            return;
         }
         
-        // Also clean up recently emptied bins that are no longer in cooldown
-        Set<Integer> oldBins = new HashSet<>();
-        for (Map.Entry<Integer, Long> entry : recentlyEmptiedBins.entrySet()) {
-            if (currentTime - entry.getValue() > EMPTY_COOLDOWN) {
-                oldBins.add(entry.getKey());
+        // Drain under a lock so a concurrent caller never sees a due entry that hasn't been released yet
+        synchronized (expiryLock) {
+            // Force release stale assignments
+            while (isDue(assignmentExpiries.peek(), currentTime)) {
+                forceReleaseBin(assignmentExpiries.poll());
+            }
+            
+            // Also clean up recently emptied bins that are no longer in cooldown
+            while (isDue(cooldownExpiries.peek(), currentTime)) {
+                EmptiedBin emptied = cooldownExpiries.poll();
+                recentlyEmptiedBins.remove(emptied.binId, emptied.emptyTime);
             }
         }
-        
-        for (Integer binId : oldBins) {
-            recentlyEmptiedBins.remove(binId);
-        }
+    }
+    
+    private static boolean isDue(Claim claim, long currentTime) {
+        return claim != null && currentTime - claim.assignedTime > ASSIGNMENT_TIMEOUT;
+    }
+    
+    private boolean isDue(EmptiedBin emptied, long currentTime) {
+        return emptied != null && currentTime - emptied.emptyTime > emptyCooldown;
     }
 }
\ No newline at end of file
@@ -1,47 +1,85 @@
 package garbageSimulation;
 
-import repast.simphony.context.Context;
-import repast.simphony.engine.schedule.ScheduledMethod;
+import repast.simphony.engine.environment.RunEnvironment;
+import repast.simphony.engine.schedule.IAction;
+import repast.simphony.engine.schedule.ISchedulableAction;
+import repast.simphony.engine.schedule.ISchedule;
+import repast.simphony.engine.schedule.ScheduleParameters;
+import repast.simphony.random.RandomHelper;
 import repast.simphony.space.continuous.ContinuousSpace;
 import repast.simphony.space.continuous.NdPoint;
-import repast.simphony.util.ContextUtils;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Collections;
 import java.util.Random;
+import garbageSimulation.BinKnowledge.BinInfo;
 
 /**
  * Vehicle agent that collects garbage from bins.
  * Final improved implementation with better unsticking mechanisms.
+ * 
+ * With event-driven movement, a vehicle heading to a bin leaves the per-tick
+ * schedule: its arrival tick is computed from the distance on the torus and one
+ * arrival event is scheduled. Until then its position is only interpolated every
+ * TRIP_SYNC_INTERVAL ticks, to keep the indexes used for gossip close, whenever
+ * it is asked for through getLocation(), and on any tick bins broadcast, so the
+ * recipients of a broadcast are found at their current positions.
  */
 public class Vehicle {
     // Spatial information
     private ContinuousSpace<Object> space;
+    private AgentRegistry registry;
     private NdPoint previousPosition;
     private double direction; // in radians
-    private Random random = new Random();
+    private Random random;  // Seeded per vehicle so runs are reproducible
     
     // Vehicle information
     private int id;
     private String type;
     private double speed;
-    private double capacity = 150.0; // Standard capacity for all vehicles
+    private double capacity;
     private double currentLoad = 0.0;
     
     // Performance metrics
     private int collectionsCompleted = 0;
     private double totalDistanceTraveled = 0;
+    private double totalCollected = 0;
     
     // Communication
-    private List<Message> inbox = new ArrayList<>();
-    private static final double COMMUNICATION_RADIUS = 20.0;
+    private final Mailbox inbox = new Mailbox(MAILBOX_CAPACITY);
+    private final Mailbox.Consumer inboxConsumer = new Mailbox.Consumer() {
+        @Override
+        public void status(MessageType messageType, BinStatus status) {
+            if (messageType == MessageType.BIN_BROADCAST) {
+                handleBinBroadcast(status);
+            } else if (messageType == MessageType.BIN_INFO) {
+                handleBinInfo(status);
+            }
+        }
+        
+        @Override
+        public void message(Message msg) {
+            if (msg.getType() == MessageType.CELL_DIGEST) {
+                handleCellDigest((CellDigestMessage) msg);
+            }
+        }
+    };
+    static final int MAILBOX_CAPACITY = 256;  // Messages held before statuses replace those of the same bin
+    static final double COMMUNICATION_RADIUS = 20.0;
+    private final double broadcastRadius;  // Of the bins, to tell which statuses in a digest reach us
+    
+    // Reused buffers for neighbor discovery and shared bin information
+    private final List<Vehicle> nearbyVehicles = new ArrayList<>();
+    private final List<BinInfo> sharedBinInfo = new ArrayList<>();
     
-    // Known environment information
-    private Map<Integer, BinInfo> knownBins = new HashMap<>();
-    private Map<Integer, Long> lastEmptyTime = new HashMap<>();
-    private static final long EMPTY_COOLDOWN = 5000; // 5 seconds cooldown
+    // Known environment information, including the bins this vehicle emptied recently
+    private final BinKnowledge knownBins;
+    static final int KNOWN_BINS_CAPACITY = 256;     // Most bin reports kept per vehicle
+    private static final long BIN_INFO_LIFETIME = 30000; // 30 seconds until a report is stale
+    private final long emptyCooldown;
+    private final double fullnessPercentage; // Fill percentage at which bins are worth collecting
+    private final DistanceKernel scoringKernel;
+    private final CandidateBlock candidateBlock;  // Known bins laid out for scoring in one pass
     
     // Current target
     private Integer targetBinId = null;
@@ -54,7 +92,7 @@ public class Vehicle {
     // Collection state
     private boolean isCollectingFromBin = false;
     private int collectionCounter = 0;
-    private static final int COLLECTION_DURATION = 10;
+    private final int collectionDuration;
     
     // Status tracking
     private String status = "idle";
@@ -69,82 +107,346 @@ public class Vehicle {
     // Reference to the task coordinator
     private TaskCoordinator coordinator;
     
-    /**
-     * Class to store information about a known bin.
-     */
-    private class BinInfo {
-        int id;
-        double x;
-        double y;
-        double fillLevel;
-        double capacity;
-        String areaType;
-        boolean isUrgent;
-        long lastUpdated;
-        
-        BinInfo(int id, double x, double y, double fillLevel, double capacity, String areaType, boolean isUrgent) {
-            this.id = id;
-            this.x = x;
-            this.y = y;
-            this.fillLevel = fillLevel;
-            this.capacity = capacity;
-            this.areaType = areaType;
-            this.isUrgent = isUrgent;
-            this.lastUpdated = System.currentTimeMillis();
-        }
-        
-        double getFillPercentage() {
-            return (fillLevel / capacity) * 100;
-        }
-        
-        NdPoint getLocation() {
-            return new NdPoint(x, y);
-        }
-        
-        boolean isStale() {
-            return System.currentTimeMillis() - lastUpdated > 30000; // 30 seconds
-        }
-        
-        @Override
-        public String toString() {
-            return "Bin " + id + " (" + areaType + "): " + String.format("%.1f", getFillPercentage()) + "% full";
-        }
-    }
+    // Multi-stop tours (planner is null when bins are targeted one at a time)
+    private RoutePlanner routePlanner = null;
+    private final List<RoutePlanner.Stop> route = new ArrayList<>();  // Stops after the current target
+    
+    // Where to wait while idle, near a bin forecast to fill up soon (null to roam freely)
+    private NdPoint stagingPoint = null;
+    private static final double STAGING_RADIUS = 3.0; // Roam freely once this close
+    
+    // Two-phase stepping: claims found while sensing are recorded as an intent
+    // and committed later in a deterministic order
+    private boolean deferClaims = false;
+    private Integer claimIntentBinId = null;
+    private NdPoint claimIntentLocation = null;
+    private double claimIntentScore = 0;
+    
+    // Movement computed ahead of being applied to the space
+    private boolean movementPlanned = false;
+    private double plannedX;
+    private double plannedY;
+    private boolean sharedInfoPrepared = false;
+    
+    // Event-driven movement: the step runs every tick except while on a trip to a bin,
+    // when only the position syncs and the arrival are scheduled
+    private boolean eventMovement = false;
+    private ISchedulableAction stepAction = null;
+    private ISchedulableAction syncAction = null;
+    private ISchedulableAction arrivalAction = null;
+    static final double TRIP_SYNC_INTERVAL = 5;  // Ticks between position updates while on a trip
+    private NdPoint tripDestination = null;      // Null when not on a trip
+    private double tripStartTick;
+    private double tripStartX;
+    private double tripStartY;
+    private double tripStepX;        // Distance covered per tick
+    private double tripStepY;
+    private double tripArrivalTick;  // Tick of the step that reaches the destination
+    private double tripSyncedTick;   // Tick of the position last written to the space
     
     /**
      * Create a new vehicle.
      * 
      * @param space Continuous space the vehicle exists in
+     * @param registry Registry of the agents, whose vehicle index is kept up to date as this vehicle moves
+     *                 and whose configuration sets the capacity and collection parameters
      * @param id Unique identifier for this vehicle
      * @param type Type description of this vehicle (for labeling only)
      * @param speed Movement speed of the vehicle
      */
-    public Vehicle(ContinuousSpace<Object> space, int id, String type, double speed) {
+    public Vehicle(ContinuousSpace<Object> space, AgentRegistry registry, int id, 
+                   String type, double speed) {
         this.space = space;
+        this.registry = registry;
         this.id = id;
         this.type = type;
         this.speed = speed;
-        this.direction = Math.random() * 2 * Math.PI;
-        this.lastStatusChangeTime = System.currentTimeMillis();
+        
+        SimulationConfig config = registry.getConfig();
+        this.capacity = config.getVehicleCapacity();
+        this.collectionDuration = config.getCollectionDuration();
+        this.emptyCooldown = config.getEmptyCooldown();
+        this.fullnessPercentage = config.getFullnessThreshold() * 100;
+        this.broadcastRadius = config.getBroadcastRadius();
+        
+        this.random = new Random(RandomHelper.getSeed() * 31L + id);
+        this.direction = random.nextDouble() * 2 * Math.PI;
+        this.lastStatusChangeTime = SimulationClock.now();
         
         // Set depot location to center of the map
         double width = space.getDimensions().getWidth();
         double height = space.getDimensions().getHeight();
         this.depotLocation = new NdPoint(width/2, height/2);
+        this.knownBins = new BinKnowledge(KNOWN_BINS_CAPACITY, BIN_INFO_LIFETIME, emptyCooldown, width, height);
+        this.scoringKernel = DistanceKernel.create(width, height);
+        this.candidateBlock = new CandidateBlock(scoringKernel);
         
         // Get task coordinator
-        this.coordinator = TaskCoordinator.getInstance();
+        this.coordinator = registry.getCoordinator();
         
-        System.out.println("Vehicle created: " + type + " (ID: " + id + "), " + 
-                           "capacity: " + capacity + ", speed: " + speed);
+        if (EventLog.isInfoEnabled()) {
+            EventLog.info("Vehicle created: %s (ID: %d), capacity: %s, speed: %s", type, id, capacity, speed);
+        }
     }
     
     /**
      * Main step method for vehicle behavior.
-     * Scheduled to run every tick starting from tick 1.
+     * Scheduled by the builder to run every tick starting from tick 1, unless the
+     * fleet is stepped in two phases by ParallelFleetStepper, which calls the
+     * same building blocks in a different order and so gives different results.
      */
-    @ScheduledMethod(start = 1, interval = 1)
     public void step() {
+        // Track position and check for stuck states
+        beginStep();
+        
+        // Process any messages in inbox
+        processMessages();
+        
+        // Remove stale bin information
+        cleanStaleData();
+        
+        // Update collection and depot state, stopping here if the vehicle doesn't move
+        if (!prepareMove()) {
+            return;
+        }
+        
+        // Move, check if we've reached our target bin and share information
+        completeStep();
+        
+        // Leave the per-tick schedule until the target bin is reached
+        if (eventMovement) {
+            beginTrip();
+        }
+    }
+    
+    /**
+     * Put this vehicle's step on the schedule, to run every tick from tick 1.
+     * Used by the builder instead of scheduling step() directly when movement is event-driven.
+     * 
+     * @param eventDriven Whether to skip the ticks spent travelling to a bin
+     */
+    void startStepping(boolean eventDriven) {
+        this.eventMovement = eventDriven;
+        scheduleSteps(1);
+    }
+    
+    /**
+     * Schedule the step to run every tick from the given tick, unless it is scheduled already.
+     */
+    private void scheduleSteps(double start) {
+        ISchedule schedule = currentSchedule();
+        if (schedule == null || stepAction != null) {
+            return;
+        }
+        IAction stepVehicle = this::step;
+        stepAction = schedule.schedule(ScheduleParameters.createRepeating(start, 1), stepVehicle);
+    }
+    
+    /**
+     * Replace the per-tick step by an arrival event if heading to a bin that is more than one step away.
+     * The arrival tick is the one on which per-tick stepping would reach the bin.
+     */
+    private void beginTrip() {
+        if (!isTravellingToBin()) {
+            return;
+        }
+        ISchedule schedule = currentSchedule();
+        if (schedule == null) {
+            return;
+        }
+        
+        // Shortest displacement to the bin on the torus
+        NdPoint myPoint = space.getLocation(this);
+        double width = space.getDimensions().getWidth();
+        double height = space.getDimensions().getHeight();
+        double dx = targetDestination.getX() - myPoint.getX();
+        double dy = targetDestination.getY() - myPoint.getY();
+        if (dx > width / 2) dx -= width;
+        else if (dx < -width / 2) dx += width;
+        if (dy > height / 2) dy -= height;
+        else if (dy < -height / 2) dy += height;
+        double distance = Math.sqrt(dx*dx + dy*dy);
+        
+        // Stepping moves one speed closer each tick and snaps onto the bin once it is less than that away
+        double ticks = Math.floor(distance / speed) + 1;
+        if (ticks < 2) {
+            return;  // Reached with the next step anyway
+        }
+        
+        double now = schedule.getTickCount();
+        tripDestination = targetDestination;
+        tripStartTick = now;
+        tripStartX = myPoint.getX();
+        tripStartY = myPoint.getY();
+        tripStepX = dx / distance * speed;
+        tripStepY = dy / distance * speed;
+        tripArrivalTick = now + ticks;
+        tripSyncedTick = now;
+        registry.setTravelling(this, true);
+        
+        if (stepAction != null) {
+            schedule.removeAction(stepAction);
+            stepAction = null;
+        }
+        IAction arrive = this::arrive;
+        arrivalAction = schedule.schedule(ScheduleParameters.createOneTime(tripArrivalTick), arrive);
+        if (now + TRIP_SYNC_INTERVAL < tripArrivalTick) {
+            IAction sync = this::syncTrip;
+            syncAction = schedule.schedule(ScheduleParameters.createRepeating(now + TRIP_SYNC_INTERVAL, TRIP_SYNC_INTERVAL), 
+                                           sync);
+        }
+        
+        if (EventLog.isDebugEnabled()) {
+            EventLog.debug("Vehicle %d (%s) travelling to bin %d, %.2f away, arriving at tick %.0f",
+                           id, type, targetBinId, distance, tripArrivalTick);
+        }
+    }
+    
+    /**
+     * Periodic update while on a trip: move to the interpolated position and
+     * handle messages, stale data and gossip as a step would. Returns to per-tick
+     * stepping if the vehicle gave up on the bin it was heading to.
+     */
+    private void syncTrip() {
+        syncPosition();
+        beginStep();
+        processMessages();
+        cleanStaleData();
+        shareInfoWithNearbyVehicles();
+        
+        if (!isTravellingToBin() || targetDestination != tripDestination) {
+            endTrip();
+            scheduleSteps(currentSchedule().getTickCount() + 1);
+        }
+    }
+    
+    /**
+     * Arrival event of a trip: move to the last position before the bin and
+     * take the step that reaches it, then continue stepping every tick.
+     */
+    private void arrive() {
+        syncPosition();
+        arrivalAction = null;  // Runs once, nothing to remove
+        endTrip();
+        step();
+        if (tripDestination == null) {
+            scheduleSteps(currentSchedule().getTickCount() + 1);
+        }
+    }
+    
+    /**
+     * Cancel the events of the current trip.
+     */
+    private void endTrip() {
+        ISchedule schedule = currentSchedule();
+        if (syncAction != null) {
+            schedule.removeAction(syncAction);
+            syncAction = null;
+        }
+        if (arrivalAction != null) {
+            schedule.removeAction(arrivalAction);
+            arrivalAction = null;
+        }
+        tripDestination = null;
+        registry.setTravelling(this, false);
+    }
+    
+    /**
+     * Write the position interpolated for the current tick to the space and the indexes
+     * if on a trip. Stops one step short of the bin, which is reached by the arrival step.
+     */
+    void syncPosition() {
+        if (tripDestination == null) {
+            return;
+        }
+        double tick = Math.min(currentSchedule().getTickCount(), tripArrivalTick - 1);
+        if (tick <= tripSyncedTick) {
+            return;
+        }
+        
+        double elapsed = tick - tripStartTick;
+        double x = tripStartX + tripStepX * elapsed;
+        double y = tripStartY + tripStepY * elapsed;
+        double width = space.getDimensions().getWidth();
+        double height = space.getDimensions().getHeight();
+        x = ((x % width) + width) % width;
+        y = ((y % height) + height) % height;
+        
+        space.moveTo(this, x, y);
+        updateIndexes(x, y);
+        totalDistanceTraveled += speed * (tick - tripSyncedTick);
+        previousPosition = space.getLocation(this);
+        tripSyncedTick = tick;
+    }
+    
+    /**
+     * Check if the vehicle is on its way to a target bin.
+     */
+    private boolean isTravellingToBin() {
+        return targetBinId != null && targetDestination != null && !isCollectingFromBin && !returningToDepot;
+    }
+    
+    /**
+     * Get the schedule of the current run, or null outside a run.
+     */
+    private static ISchedule currentSchedule() {
+        RunEnvironment environment = RunEnvironment.getInstance();
+        return (environment != null) ? environment.getCurrentSchedule() : null;
+    }
+    
+    /**
+     * Sense phase of two-phase stepping.
+     * Processes messages and scores candidate bins while only reading shared state;
+     * any bin this vehicle wants to claim is recorded as an intent instead.
+     */
+    void sense() {
+        deferClaims = true;
+        try {
+            processMessages();
+            cleanStaleData();
+            if (targetBinId == null && claimIntentBinId == null) {
+                findNewTarget();
+            }
+        } finally {
+            deferClaims = false;
+        }
+    }
+    
+    boolean hasClaimIntent() {
+        return claimIntentBinId != null;
+    }
+    
+    double getClaimIntentScore() {
+        return claimIntentScore;
+    }
+    
+    /**
+     * Try to claim the bin recorded as an intent during the sense phase.
+     */
+    void commitClaimIntent() {
+        Integer binId = claimIntentBinId;
+        NdPoint binLocation = claimIntentLocation;
+        claimIntentBinId = null;
+        claimIntentLocation = null;
+        
+        if (binId != null && targetBinId == null && !isCollectingFromBin && !returningToDepot) {
+            claimAndTarget(binId, binLocation, 0);
+        }
+    }
+    
+    /**
+     * Drop the claim intent recorded during the sense phase without claiming it,
+     * e.g. to sense again from the same state in a benchmark.
+     */
+    void discardClaimIntent() {
+        claimIntentBinId = null;
+        claimIntentLocation = null;
+    }
+    
+    /**
+     * Track the current position and check for stuck states.
+     */
+    void beginStep() {
         // Track current position for distance calculation
         NdPoint currentPosition = space.getLocation(this);
         
@@ -158,42 +460,51 @@ public class Vehicle {
         
         // Check for stuck states
         checkIfStuck();
-        
-        // Process any messages in inbox
-        processMessages();
-        
-        // Remove stale bin information
-        cleanStaleData();
-        
+    }
+    
+    /**
+     * Advance collection and depot state and find a target if needed.
+     * 
+     * @return true if the vehicle moves this tick
+     */
+    boolean prepareMove() {
         // Check if collecting from bin
         if (isCollectingFromBin) {
             collectionCounter++;
-            if (collectionCounter >= COLLECTION_DURATION) {
+            if (collectionCounter >= collectionDuration) {
                 finishCollection();
             } else {
-                System.out.println("Vehicle " + id + " (" + type + ") collecting from bin " + 
-                                 targetBinId + ": " + collectionCounter + "/" + COLLECTION_DURATION);
-                return; // Skip rest of step while collecting
+                if (EventLog.isDebugEnabled()) {
+                    EventLog.debug("Vehicle %d (%s) collecting from bin %d: %d/%d",
+                                   id, type, targetBinId, collectionCounter, collectionDuration);
+                }
+                return false; // Skip rest of step while collecting
             }
         }
         
         // Check if vehicle is nearly full and needs to return to depot
         if (currentLoad >= capacity * 0.9 && !returningToDepot) {
             returnToDepot();
-            return;
+            return false;
         }
         
         // Check if we've reached the depot
         if (returningToDepot) {
             checkDepotReached();
-            return;
+            return false;
         }
         
         // If no target, find a new one
         if (targetBinId == null) {
             findNewTarget();
         }
-        
+        return true;
+    }
+    
+    /**
+     * Apply the movement, check if the target bin was reached and share information.
+     */
+    void completeStep() {
         // Move the vehicle
         moveVehicle();
         
@@ -216,7 +527,7 @@ public class Vehicle {
             if (movementDistance < 0.01) { // Effectively no movement
                 stuckCounter++;
                 if (stuckCounter >= MAX_STUCK_COUNT) {
-                    System.out.println("Vehicle " + id + " detected as physically stuck (not moving). Applying jitter.");
+                    EventLog.warn("Vehicle %d detected as physically stuck (not moving). Applying jitter.", id);
                     // Apply random movement to unstick
                     applyJitterMovement();
                     stuckCounter = 0;
@@ -250,6 +561,7 @@ public class Vehicle {
         
         // Force move to break out of stuck state
         space.moveTo(this, newX, newY);
+        updateIndexes(newX, newY);
         
         // If we have a target and collecting, cancel the collection
         if (isCollectingFromBin) {
@@ -265,11 +577,11 @@ public class Vehicle {
      * Check if the vehicle is stuck in one state for too long.
      */
     private void checkIfStuck() {
-        long currentTime = System.currentTimeMillis();
+        long currentTime = SimulationClock.now();
         if (currentTime - lastStatusChangeTime > STUCK_THRESHOLD) {
             // If we're in the same state for too long, we might be stuck
             if (isCollectingFromBin) {
-                System.out.println("Vehicle " + id + " appears to be stuck while collecting. Resetting state.");
+                EventLog.warn("Vehicle %d appears to be stuck while collecting. Resetting state.", id);
                 isCollectingFromBin = false;
                 collectionCounter = 0;
                 
@@ -287,8 +599,8 @@ public class Vehicle {
                     
                     // If we're still too far from target after STUCK_THRESHOLD time, we might be stuck
                     if (currentDistance > 2.0) {
-                        System.out.println("Vehicle " + id + " appears to be stuck while moving to bin " + 
-                                         targetBinId + ". Resetting target.");
+                        EventLog.warn("Vehicle %d appears to be stuck while moving to bin %d. Resetting target.",
+                                      id, targetBinId);
                         releaseTarget();
                         lastStatusChangeTime = currentTime;
                     }
@@ -303,183 +615,305 @@ public class Vehicle {
     private void updateStatus(String newStatus) {
         if (!this.status.equals(newStatus)) {
             this.status = newStatus;
-            this.lastStatusChangeTime = System.currentTimeMillis();
+            this.lastStatusChangeTime = SimulationClock.now();
         }
     }
     
     /**
      * Process all messages in the inbox.
      */
-    private void processMessages() {
+    void processMessages() {
         if (inbox.isEmpty()) {
             return;
         }
         
-        // Process only BIN_BROADCAST messages
-        for (Message msg : inbox) {
-            if (msg.getType().equals("BIN_BROADCAST")) {
-                handleBinBroadcast(msg);
-            } else if (msg.getType().equals("BIN_INFO")) {
-                handleBinInfo(msg);
-            }
-        }
-        
-        // Clear inbox
-        inbox.clear();
+        // Take every message out of the inbox, handing the slots back to the senders
+        inbox.drain(inboxConsumer);
     }
     
     /**
      * Handle a bin broadcast message.
      */
-    private void handleBinBroadcast(Message msg) {
-        String[] parts = msg.getContent().split(":");
-        if (parts.length >= 7 && parts[0].equals("BIN_STATUS")) {
-            int binId = Integer.parseInt(parts[1]);
-            double binX = Double.parseDouble(parts[2]);
-            double binY = Double.parseDouble(parts[3]);
-            double fillLevel = Double.parseDouble(parts[4]);
-            double capacity = Double.parseDouble(parts[5]);
-            String areaType = parts[6];
-            boolean isUrgent = (parts.length >= 8 && parts[7].equals("URGENT"));
+    private void handleBinBroadcast(BinStatus msg) {
+        int binId = msg.getBinId();
+        double fillLevel = msg.getFillLevel();
+        String areaType = msg.getAreaType();
+        boolean isUrgent = msg.isUrgent();
+        
+        // Only consider bins at or above the fullness threshold
+        double fillPercentage = msg.getFillPercentage();
+        if (fillPercentage >= fullnessPercentage) {
+            // Store bin info
+            NdPoint myPoint = space.getLocation(this);
+            BinInfo binInfo = knownBins.report(binId, msg.getX(), msg.getY(), fillLevel, msg.getCapacity(), 
+                                               areaType, isUrgent, myPoint.getX(), myPoint.getY());
             
-            // Only consider bins with fill level >= 70%
-            double fillPercentage = (fillLevel/capacity) * 100;
-            if (fillPercentage >= 70.0) {
-                // Store bin info
-                BinInfo binInfo = new BinInfo(binId, binX, binY, fillLevel, capacity, areaType, isUrgent);
-                knownBins.put(binId, binInfo);
-                
-                // Calculate distance to bin
-                NdPoint myPoint = space.getLocation(this);
-                NdPoint binPoint = new NdPoint(binX, binY);
-                double distance = space.getDistance(myPoint, binPoint);
-                
-                System.out.println("Vehicle " + id + " (" + type + ") received broadcast from bin " + 
-                                 binId + " (" + areaType + "), " + String.format("%.1f", fillPercentage) + 
-                                 "% full, distance: " + String.format("%.2f", distance));
+            // Calculate distance to bin
+            double distance = Math.sqrt(registry.getVehicleGrid().wrappedDistanceSquared(
+                myPoint.getX(), myPoint.getY(), binInfo.x, binInfo.y));
+            
+            if (EventLog.isDebugEnabled()) {
+                EventLog.debug("Vehicle %d (%s) received broadcast from bin %d (%s), %.1f%% full, distance: %.2f",
+                               id, type, binId, areaType, fillPercentage, distance);
+            }
+            
+            // If we have no target and bin is close or urgent, try to target it
+            if (routePlanner != null) {
+                // Fit the bin into the current tour; without a tour one is planned when the vehicle moves
+                if (targetBinId != null && !returningToDepot && !deferClaims) {
+                    extendRoute(binInfo);
+                }
+            } else if (targetBinId == null && !isCollectingFromBin && !returningToDepot && 
+                       !coordinator.isBatchAssignment()) {
+                // Only target if very close or urgent
+                boolean shouldTarget = (distance < 10.0) || (isUrgent && distance < 20.0);
                 
-                // If we have no target and bin is close or urgent, try to target it
-                if (targetBinId == null && !isCollectingFromBin && !returningToDepot) {
-                    // Only target if very close or urgent
-                    boolean shouldTarget = (distance < 10.0) || (isUrgent && distance < 20.0);
-                    
-                    if (shouldTarget && hasCapacityFor(fillLevel)) {
-                        // Try to get assignment via coordinator
-                        if (coordinator.requestBinAssignment(id, binId)) {
-                            targetBin(binId, binPoint);
-                        }
-                    }
+                if (shouldTarget && hasCapacityFor(fillLevel)) {
+                    // Try to get assignment via coordinator
+                    claimAndTarget(binId, binInfo.getLocation(), targetScore(distance, fillPercentage, isUrgent));
                 }
             }
         }
     }
     
     /**
-     * Handle bin information shared by another vehicle
+     * Handle the bin broadcasts published to a cell we are subscribed to,
+     * keeping only those whose broadcast range reaches us.
      */
-    private void handleBinInfo(Message msg) {
-        String[] parts = msg.getContent().split(":");
-        if (parts.length >= 7) {
-            int binId = Integer.parseInt(parts[1]);
-            double binX = Double.parseDouble(parts[2]);
-            double binY = Double.parseDouble(parts[3]);
-            double fillLevel = Double.parseDouble(parts[4]);
-            double capacity = Double.parseDouble(parts[5]);
-            String areaType = parts[6];
-            boolean isUrgent = (parts.length >= 8 && parts[7].equals("URGENT"));
-            
-            // Only consider bins with fill level >= 70%
-            if ((fillLevel/capacity) * 100 >= 70.0 && coordinator.isBinAvailable(binId)) {
-                BinInfo binInfo = new BinInfo(binId, binX, binY, fillLevel, capacity, areaType, isUrgent);
-                knownBins.put(binId, binInfo);
+    private void handleCellDigest(CellDigestMessage digest) {
+        NdPoint myPoint = getLocation();
+        SpatialGrid<Vehicle> grid = registry.getVehicleGrid();
+        for (BinStatusMessage msg : digest.getStatuses()) {
+            double range = GarbageBin.broadcastRange(broadcastRadius, msg.isUrgent());
+            if (grid.wrappedDistanceSquared(myPoint.getX(), myPoint.getY(), msg.getX(), msg.getY()) <= range * range) {
+                handleBinBroadcast(msg);
             }
         }
     }
     
+    /**
+     * Handle bin information shared by another vehicle
+     */
+    private void handleBinInfo(BinStatus msg) {
+        int binId = msg.getBinId();
+        
+        // Only consider bins at or above the fullness threshold; while sensing, only read the coordinator
+        if (msg.getFillPercentage() >= fullnessPercentage && 
+            (deferClaims ? coordinator.isBinUnclaimed(binId) : coordinator.isBinAvailable(binId))) {
+            NdPoint myPoint = space.getLocation(this);
+            knownBins.report(binId, msg.getX(), msg.getY(), msg.getFillLevel(), msg.getCapacity(), 
+                             msg.getAreaType(), msg.isUrgent(), myPoint.getX(), myPoint.getY());
+        }
+    }
+    
     /**
      * Remove stale data from vehicle's knowledge base.
+     * Only the entries that have expired are looked at.
      */
     private void cleanStaleData() {
-        // Remove stale bin information
-        List<Integer> staleBins = new ArrayList<>();
-        for (Map.Entry<Integer, BinInfo> entry : knownBins.entrySet()) {
-            if (entry.getValue().isStale()) {
-                staleBins.add(entry.getKey());
-            }
+        knownBins.expire(SimulationClock.now());
+    }
+    
+    /**
+     * Find a new bin to target based on distance and fill level.
+     */
+    private void findNewTarget() {
+        if (returningToDepot || isCollectingFromBin || targetBinId != null) {
+            return;
+        }
+        
+        // Targets are handed out by the coordinator in batch assignment mode
+        if (coordinator.isBatchAssignment()) {
+            return;
         }
         
-        for (Integer binId : staleBins) {
-            knownBins.remove(binId);
+        // Follow the planned tour, or plan a new one
+        if (routePlanner != null) {
+            followRoute();
+            return;
         }
         
-        // Remove old entries from lastEmptyTime
-        List<Integer> oldEntries = new ArrayList<>();
-        long currentTime = System.currentTimeMillis();
-        for (Map.Entry<Integer, Long> entry : lastEmptyTime.entrySet()) {
-            if (currentTime - entry.getValue() > EMPTY_COOLDOWN) {
-                oldEntries.add(entry.getKey());
+        // Let the coordinator pick the best bin we can get among the known ones
+        NdPoint myPoint = space.getLocation(this);
+        double freeCapacity = capacity - currentLoad;
+        if (deferClaims) {
+            // Record the best bin as the intent, to be claimed in the act phase
+            BinInfo bestBin = coordinator.findBestBin(id, myPoint, freeCapacity, knownBins.values(), candidateBlock);
+            if (bestBin != null) {
+                claimAndTarget(bestBin.id, bestBin.getLocation(), candidateBlock.getBestScore());
             }
+            return;
         }
         
-        for (Integer binId : oldEntries) {
-            lastEmptyTime.remove(binId);
+        BinInfo claimed = coordinator.claimBestBin(id, myPoint, freeCapacity, knownBins.values(), candidateBlock);
+        if (claimed != null) {
+            targetBin(claimed.id, claimed.getLocation());
         }
     }
     
     /**
-     * Find a new bin to target based on distance and fill level.
+     * Target the next stop of the planned tour, planning a new tour when it is used up.
+     * Tours are only planned and claimed while claims are not deferred.
      */
-    private void findNewTarget() {
-        if (returningToDepot || isCollectingFromBin || targetBinId != null) {
+    private void followRoute() {
+        if (deferClaims) {
             return;
         }
         
-        // Get current position
-        NdPoint myPoint = space.getLocation(this);
-        
-        // Find best bin to target
-        BinInfo bestBin = null;
-        double bestScore = Double.NEGATIVE_INFINITY;
+        // Continue with the next stop that is still ours
+        while (!route.isEmpty()) {
+            RoutePlanner.Stop next = route.remove(0);
+            if (coordinator.isBinAssignedToVehicle(id, next.getBinId()) || 
+                coordinator.requestBinAssignment(id, next.getBinId())) {
+                targetBin(next.getBinId(), new NdPoint(next.x, next.y));
+                return;
+            }
+        }
         
+        planRoute();
+    }
+    
+    /**
+     * Plan a tour through the known bins that fits the remaining capacity and claim it.
+     */
+    private void planRoute() {
+        List<RoutePlanner.Stop> candidates = new ArrayList<>();
         for (BinInfo bin : knownBins.values()) {
-            // Skip bins that aren't available
-            if (!coordinator.isBinAvailable(bin.id)) {
-                continue;
+            if (isRouteCandidate(bin.id)) {
+                candidates.add(new RoutePlanner.Stop(bin.id, bin.x, bin.y, bin.fillLevel));
             }
-            
-            // Skip if we don't have capacity
-            if (!hasCapacityFor(bin.fillLevel)) {
-                continue;
-            }
-            
-            // Skip if recently emptied
-            if (lastEmptyTime.containsKey(bin.id) && 
-                System.currentTimeMillis() - lastEmptyTime.get(bin.id) < EMPTY_COOLDOWN) {
-                continue;
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+        
+        NdPoint myPoint = space.getLocation(this);
+        List<RoutePlanner.Stop> tour = routePlanner.planTour(myPoint.getX(), myPoint.getY(), 
+                                                             depotLocation.getX(), depotLocation.getY(), 
+                                                             candidates, capacity - currentLoad);
+        if (tour.isEmpty()) {
+            return;
+        }
+        
+        // Claim the whole tour with one request and drop the stops we didn't get
+        List<Integer> binIds = new ArrayList<>();
+        for (RoutePlanner.Stop stop : tour) {
+            binIds.add(stop.getBinId());
+        }
+        List<Integer> assigned = coordinator.requestBinAssignments(id, binIds);
+        if (assigned.isEmpty()) {
+            return;
+        }
+        if (assigned.size() < tour.size()) {
+            tour.removeIf(stop -> !assigned.contains(stop.getBinId()));
+            routePlanner.improve(tour, myPoint.getX(), myPoint.getY(), depotLocation.getX(), depotLocation.getY());
+        }
+        
+        EventLog.info("Vehicle %d (%s) planned a tour of %d bins", id, type, tour.size());
+        
+        RoutePlanner.Stop first = tour.remove(0);
+        route.clear();
+        route.addAll(tour);
+        targetBin(first.getBinId(), new NdPoint(first.x, first.y));
+    }
+    
+    /**
+     * Insert a newly reported bin into the current tour if it fits, and claim it.
+     */
+    private void extendRoute(BinInfo bin) {
+        if (bin.id == targetBinId || !isRouteCandidate(bin.id)) {
+            return;
+        }
+        
+        // Capacity left once the current target has been collected
+        BinInfo target = knownBins.get(targetBinId);
+        double available = capacity - currentLoad - (target != null ? target.fillLevel : 0);
+        
+        RoutePlanner.Stop stop = new RoutePlanner.Stop(bin.id, bin.x, bin.y, bin.fillLevel);
+        if (!routePlanner.insertStop(route, stop, targetDestination.getX(), targetDestination.getY(), 
+                                     depotLocation.getX(), depotLocation.getY(), available)) {
+            return;
+        }
+        
+        if (coordinator.requestBinAssignment(id, bin.id)) {
+            if (EventLog.isInfoEnabled()) {
+                EventLog.info("Vehicle %d (%s) added bin %d to its tour (%d stops left)", id, type, bin.id, route.size());
             }
-            
-            // Calculate distance
-            double distance = space.getDistance(myPoint, bin.getLocation());
-            
-            // Calculate score (prioritizing closer bins and higher fill levels)
-            double distanceScore = 1000.0 / (distance * distance + 1.0); // Inverse square distance
-            double fillScore = bin.getFillPercentage() / 100.0;  // 0.0 - 1.0
-            double urgencyBonus = bin.isUrgent ? 1.5 : 1.0;      // 50% bonus for urgent bins
-            
-            double score = distanceScore * (0.7 + 0.3 * fillScore) * urgencyBonus;
-            
-            if (score > bestScore) {
-                bestScore = score;
-                bestBin = bin;
+        } else {
+            route.remove(stop);
+        }
+    }
+    
+    /**
+     * Check if a bin may be added to a tour.
+     */
+    private boolean isRouteCandidate(int binId) {
+        if (!coordinator.isBinAvailable(binId)) {
+            return false;
+        }
+        
+        // Skip if recently emptied
+        if (knownBins.isRecentlyEmptied(binId, SimulationClock.now())) {
+            return false;
+        }
+        
+        for (RoutePlanner.Stop stop : route) {
+            if (stop.getBinId() == binId) {
+                return false;
             }
         }
+        return true;
+    }
+    
+    /**
+     * Release the claims on all remaining stops of the tour.
+     */
+    private void releaseRoute() {
+        for (RoutePlanner.Stop stop : route) {
+            coordinator.releaseBin(id, stop.getBinId());
+        }
+        route.clear();
+    }
+    
+    /**
+     * Score a candidate bin, prioritizing closer bins and higher fill levels.
+     * 
+     * @param distance Distance from the vehicle to the bin
+     * @param fillPercentage Fill level of the bin in percent
+     * @param isUrgent Whether the bin is urgently full
+     * @return Score of the bin (higher is better)
+     */
+    static double targetScore(double distance, double fillPercentage, boolean isUrgent) {
+        double distanceScore = 1000.0 / (distance * distance + 1.0); // Inverse square distance
+        double fillScore = fillPercentage / 100.0;  // 0.0 - 1.0
+        double urgencyBonus = isUrgent ? 1.5 : 1.0;      // 50% bonus for urgent bins
         
-        // Target the best bin if found
-        if (bestBin != null) {
-            // Try to get assignment via coordinator
-            if (coordinator.requestBinAssignment(id, bestBin.id)) {
-                targetBin(bestBin.id, bestBin.getLocation());
+        return distanceScore * (0.7 + 0.3 * fillScore) * urgencyBonus;
+    }
+    
+    /**
+     * Get the part of targetScore() that doesn't depend on distance, for scoring with a DistanceKernel.
+     */
+    static double targetPriority(double fillPercentage, boolean isUrgent) {
+        return (0.7 + 0.3 * fillPercentage / 100.0) * (isUrgent ? 1.5 : 1.0);
+    }
+    
+    /**
+     * Request a bin from the coordinator and target it if assigned.
+     * While claims are deferred, the first candidate is recorded as the claim intent instead.
+     */
+    private void claimAndTarget(int binId, NdPoint binLocation, double score) {
+        if (deferClaims) {
+            if (claimIntentBinId == null) {
+                claimIntentBinId = binId;
+                claimIntentLocation = binLocation;
+                claimIntentScore = score;
             }
+            return;
+        }
+        
+        if (coordinator.requestBinAssignment(id, binId)) {
+            targetBin(binId, binLocation);
         }
     }
     
@@ -490,17 +924,20 @@ public class Vehicle {
         // Set as our target
         targetBinId = binId;
         targetDestination = binLocation;
+        stagingPoint = null;
         
-        // Update status
-        BinInfo binInfo = knownBins.get(binId);
-        String areaType = (binInfo != null) ? binInfo.areaType : "UNKNOWN";
-        boolean isUrgent = (binInfo != null) && binInfo.isUrgent;
-        double distance = space.getDistance(space.getLocation(this), binLocation);
-        
-        System.out.println("Vehicle " + id + " (" + type + ") targeting bin " + binId + 
-                          " (" + areaType + ")" + (isUrgent ? " (URGENT)" : "") + 
-                          " at distance " + String.format("%.2f", distance));
+        // The distance is only needed for the log
+        if (EventLog.isInfoEnabled()) {
+            BinInfo binInfo = knownBins.get(binId);
+            String areaType = (binInfo != null) ? binInfo.areaType : "UNKNOWN";
+            boolean isUrgent = (binInfo != null) && binInfo.isUrgent;
+            double distance = space.getDistance(space.getLocation(this), binLocation);
+            
+            EventLog.info("Vehicle %d (%s) targeting bin %d (%s)%s at distance %.2f",
+                          id, type, binId, areaType, (isUrgent ? " (URGENT)" : ""), distance);
+        }
         
+        // Update status
         updateStatus("heading to bin " + binId);
     }
     
@@ -517,12 +954,12 @@ public class Vehicle {
         
         // If we're close enough to the bin
         if (distance < 1.0) {
-            System.out.println("Vehicle " + id + " (" + type + ") reached bin " + targetBinId);
+            EventLog.info("Vehicle %d (%s) reached bin %d", id, type, targetBinId);
             
             // Try to mark the bin as being serviced
             if (!markBinAsBeingServiced()) {
-                System.out.println("Vehicle " + id + " (" + type + ") couldn't mark bin " + 
-                                 targetBinId + " as serviced - bin not found or already serviced");
+                EventLog.warn("Vehicle %d (%s) couldn't mark bin %d as serviced - bin not found or already serviced",
+                              id, type, targetBinId);
                 releaseTarget();
                 return;
             }
@@ -546,23 +983,19 @@ public class Vehicle {
         }
         
         // Then mark the actual bin object
-        Context<Object> context = ContextUtils.getContext(this);
+        GarbageBin bin = registry.getBin(targetBinId);
         
-        for (Object obj : context) {
-            if (obj instanceof GarbageBin && ((GarbageBin) obj).getId() == targetBinId) {
-                GarbageBin bin = (GarbageBin) obj;
-                
-                // Check if already being serviced
-                if (bin.isBeingServiced()) {
-                    // If bin is already being serviced, release our assignment
-                    coordinator.releaseBin(id, targetBinId);
-                    return false;
-                }
-                
-                // Mark it
-                bin.markAsBeingServiced();
-                return true;
+        if (bin != null) {
+            // Check if already being serviced
+            if (bin.isBeingServiced()) {
+                // If bin is already being serviced, release our assignment
+                coordinator.releaseBin(id, targetBinId);
+                return false;
             }
+            
+            // Mark it
+            bin.markAsBeingServiced();
+            return true;
         }
         
         // If bin not found, release our assignment
@@ -578,7 +1011,7 @@ public class Vehicle {
         
         coordinator.releaseBin(id, targetBinId);
         
-        System.out.println("Vehicle " + id + " (" + type + ") releasing target bin " + targetBinId);
+        EventLog.info("Vehicle %d (%s) releasing target bin %d", id, type, targetBinId);
         
         targetBinId = null;
         targetDestination = null;
@@ -596,7 +1029,7 @@ public class Vehicle {
         collectionCounter = 0;
         
         if (targetBinId == null) {
-            System.out.println("Vehicle " + id + " (" + type + ") finished collecting but has no target bin ID");
+            EventLog.warn("Vehicle %d (%s) finished collecting but has no target bin ID", id, type);
             updateStatus("idle");
             return;
         }
@@ -610,9 +1043,10 @@ public class Vehicle {
             
             // Track completion
             collectionsCompleted++;
+            totalCollected += collectedAmount;
             
             // Record last empty time
-            lastEmptyTime.put(targetBinId, System.currentTimeMillis());
+            knownBins.markEmptied(targetBinId, SimulationClock.now());
             
             // Release target
             releaseTarget();
@@ -625,7 +1059,7 @@ public class Vehicle {
                 findNewTarget();
             }
         } catch (Exception e) {
-            System.out.println("Vehicle " + id + " encountered error during collection: " + e.getMessage());
+            EventLog.warn("Vehicle %d encountered error during collection: %s", id, e.getMessage());
             // Ensure we clean up properly even if there's an error
             if (targetBinId != null) {
                 releaseTarget();
@@ -640,26 +1074,24 @@ public class Vehicle {
      * @return Amount collected from the bin
      */
     private double emptyTargetBin() {
-        Context<Object> context = ContextUtils.getContext(this);
+        GarbageBin bin = registry.getBin(targetBinId);
         double collectedAmount = 0;
         
-        for (Object obj : context) {
-            if (obj instanceof GarbageBin && ((GarbageBin) obj).getId() == targetBinId) {
-                GarbageBin bin = (GarbageBin) obj;
-                double fillLevel = bin.getFillLevel();
-                double availableCapacity = capacity - currentLoad;
-                
-                if (fillLevel <= availableCapacity) {
-                    // Can completely empty the bin
-                    collectedAmount = bin.emptyBin();
-                    System.out.println("Vehicle " + id + " (" + type + ") completely emptied bin " + targetBinId);
-                } else {
-                    // Can only partially empty the bin
-                    collectedAmount = bin.reduceLevel(availableCapacity);
-                    System.out.println("Vehicle " + id + " (" + type + ") partially emptied bin " + targetBinId + 
-                                     " - vehicle now at " + String.format("%.1f", (currentLoad/capacity*100)) + "% capacity");
+        if (bin != null) {
+            double fillLevel = bin.getFillLevel();
+            double availableCapacity = capacity - currentLoad;
+            
+            if (fillLevel <= availableCapacity) {
+                // Can completely empty the bin
+                collectedAmount = bin.emptyBin();
+                EventLog.info("Vehicle %d (%s) completely emptied bin %d", id, type, targetBinId);
+            } else {
+                // Can only partially empty the bin
+                collectedAmount = bin.reduceLevel(availableCapacity);
+                if (EventLog.isInfoEnabled()) {
+                    EventLog.info("Vehicle %d (%s) partially emptied bin %d - vehicle now at %.1f%% capacity",
+                                  id, type, targetBinId, (currentLoad/capacity*100));
                 }
-                break;
             }
         }
         
@@ -670,7 +1102,8 @@ public class Vehicle {
      * Start returning to the depot.
      */
     private void returnToDepot() {
-        // Clear any current target
+        // Clear any current target and the rest of the tour
+        releaseRoute();
         if (targetBinId != null) {
             releaseTarget();
         }
@@ -680,8 +1113,9 @@ public class Vehicle {
         returningToDepot = true;
         updateStatus("returning to depot");
         
-        System.out.println("Vehicle " + id + " (" + type + ") returning to depot with " + 
-                         String.format("%.1f", (currentLoad/capacity*100)) + "% load");
+        if (EventLog.isInfoEnabled()) {
+            EventLog.info("Vehicle %d (%s) returning to depot with %.1f%% load", id, type, (currentLoad/capacity*100));
+        }
     }
     
     /**
@@ -694,8 +1128,9 @@ public class Vehicle {
         double distance = space.getDistance(myPoint, depotLocation);
         
         if (distance < 1.0) {
-            System.out.println("Vehicle " + id + " (" + type + ") reached depot - unloading " + 
-                             String.format("%.1f", currentLoad) + " units");
+            if (EventLog.isInfoEnabled()) {
+                EventLog.info("Vehicle %d (%s) reached depot - unloading %.1f units", id, type, currentLoad);
+            }
             
             // Empty the vehicle
             currentLoad = 0.0;
@@ -709,16 +1144,50 @@ public class Vehicle {
     }
     
     /**
-     * Move the vehicle toward its destination or randomly if no destination.
+     * Move the vehicle to the position computed by planMovement(),
+     * planning the movement first if that hasn't happened yet.
      */
     private void moveVehicle() {
+        if (!movementPlanned) {
+            planMovement();
+        }
+        movementPlanned = false;
+        
+        // Move to new position
+        space.moveTo(this, plannedX, plannedY);
+        updateIndexes(plannedX, plannedY);
+    }
+    
+    /**
+     * Record a new position in the neighbor lists and the broadcast subscriptions.
+     */
+    void updateIndexes(double x, double y) {
+        registry.getNeighborList().update(this, x, y);
+        BroadcastBus bus = registry.getBroadcastBus();
+        if (bus != null) {
+            bus.move(this, x, y);
+        }
+    }
+    
+    /**
+     * Compute the next position toward the destination, or randomly if no destination.
+     * Only changes this vehicle's own state, so it may run in parallel for the whole fleet.
+     */
+    void planMovement() {
         NdPoint myPoint = space.getLocation(this);
         double x, y;
         
-        if (targetDestination != null) {
+        // Without a destination, head for the staging point until close to it
+        NdPoint destination = targetDestination;
+        if (destination == null && stagingPoint != null && 
+            space.getDistance(myPoint, stagingPoint) > STAGING_RADIUS) {
+            destination = stagingPoint;
+        }
+        
+        if (destination != null) {
             // Move toward destination
-            double targetX = targetDestination.getX();
-            double targetY = targetDestination.getY();
+            double targetX = destination.getX();
+            double targetY = destination.getY();
             
             // Calculate direction vector
             double dx = targetX - myPoint.getX();
@@ -757,6 +1226,9 @@ public class Vehicle {
             } else if (returningToDepot) {
                 // Moving to depot
                 updateStatus("moving to depot");
+            } else if (destination == stagingPoint) {
+                // Moving toward a bin expected to fill up
+                updateStatus("moving to staging point");
             } else {
                 // Moving to some other target
                 updateStatus("moving to target");
@@ -764,8 +1236,8 @@ public class Vehicle {
         } else {
             // No target - random movement
             // Occasionally change direction
-            if (Math.random() < 0.05) {
-                direction = Math.random() * 2 * Math.PI;
+            if (random.nextDouble() < 0.05) {
+                direction = random.nextDouble() * 2 * Math.PI;
             }
             
             // Move in current direction
@@ -787,52 +1259,134 @@ public class Vehicle {
         if (y < 0) y += height;
         if (y >= height) y -= height;
         
-        // Move to new position
-        space.moveTo(this, x, y);
+        plannedX = x;
+        plannedY = y;
+        movementPlanned = true;
     }
     
     /**
      * Share information with nearby vehicles.
      */
-    private void shareInfoWithNearbyVehicles() {
-        Context<Object> context = ContextUtils.getContext(this);
-        NdPoint myPoint = space.getLocation(this);
+    void shareInfoWithNearbyVehicles() {
+        nearbyVehicles.clear();
+        registry.getNeighborList().neighborsOf(this, nearbyVehicles);
+        if (nearbyVehicles.isEmpty()) {
+            sharedInfoPrepared = false;
+            return;
+        }
         
-        for (Object obj : context) {
-            if (obj instanceof Vehicle && obj != this) {
-                Vehicle other = (Vehicle) obj;
-                NdPoint otherPoint = space.getLocation(other);
-                double distance = space.getDistance(myPoint, otherPoint);
-                
-                if (distance <= COMMUNICATION_RADIUS) {
-                    // Share information about bins
-                    for (BinInfo binInfo : knownBins.values()) {
-                        // Only share if bin is still relevant and above threshold
-                        if (!binInfo.isStale() && binInfo.getFillPercentage() >= 70.0) {
-                            String urgencyFlag = binInfo.isUrgent ? "URGENT" : "NORMAL";
-                            String content = "BIN_INFO:" + binInfo.id + ":" + binInfo.x + ":" + binInfo.y + ":" +
-                                           binInfo.fillLevel + ":" + binInfo.capacity + ":" + binInfo.areaType + ":" + urgencyFlag;
-                            Message msg = new Message(id, "BIN_INFO", content);
-                            other.receiveMessage(msg);
-                        }
-                    }
-                }
+        if (!sharedInfoPrepared) {
+            prepareSharedInfo();
+        }
+        sharedInfoPrepared = false;
+        
+        for (Vehicle other : nearbyVehicles) {
+            for (BinInfo binInfo : sharedBinInfo) {
+                other.receiveBinStatus(MessageType.BIN_INFO, id, binInfo.id, binInfo.x, binInfo.y, 
+                                       binInfo.fillLevel, binInfo.capacity, binInfo.areaType, binInfo.isUrgent);
             }
         }
     }
     
+    /**
+     * Pick the bin information shared with every neighbor.
+     * Only reads this vehicle's own knowledge, so it may run in parallel for the whole fleet.
+     */
+    void prepareSharedInfo() {
+        sharedBinInfo.clear();
+        long now = SimulationClock.now();
+        for (BinInfo binInfo : knownBins.values()) {
+            // Only share if bin is still relevant and above threshold
+            if (!knownBins.isStale(binInfo, now) && binInfo.getFillPercentage() >= fullnessPercentage) {
+                sharedBinInfo.add(binInfo);
+            }
+        }
+        sharedInfoPrepared = true;
+    }
+    
     /**
      * Check if vehicle has capacity for a given amount.
      */
-    private boolean hasCapacityFor(double amount) {
+    boolean hasCapacityFor(double amount) {
         return (currentLoad + amount <= capacity);
     }
     
     /**
-     * Add a message to this vehicle's inbox.
+     * Plan multi-stop tours with the given planner instead of targeting one bin at a time.
+     */
+    void setRoutePlanner(RoutePlanner planner) {
+        this.routePlanner = planner;
+    }
+    
+    /**
+     * Set where to wait while idle, or null to roam freely.
+     */
+    void setStagingPoint(NdPoint point) {
+        this.stagingPoint = point;
+    }
+    
+    /**
+     * Check if the vehicle is free to take a bin handed out by batch assignment.
+     */
+    boolean isAwaitingAssignment() {
+        return targetBinId == null && !isCollectingFromBin && !returningToDepot && currentLoad < capacity * 0.9;
+    }
+    
+    /**
+     * Score a block of bins from the vehicle's current position in one pass.
+     * 
+     * @param xs X coordinates of the bins
+     * @param ys Y coordinates of the bins
+     * @param priorities targetPriority() of each bin
+     * @param count Number of bins
+     * @param result Receives the scores, equal to targetScore() up to rounding
+     */
+    void scoreTargets(double[] xs, double[] ys, double[] priorities, int count, double[] result) {
+        NdPoint location = getLocation();
+        scoringKernel.targetScores(location.getX(), location.getY(), xs, ys, priorities, count, result);
+    }
+    
+    /**
+     * Get the current position of the vehicle, interpolated if it is on a trip.
+     */
+    public NdPoint getLocation() {
+        syncPosition();
+        return space.getLocation(this);
+    }
+    
+    /**
+     * Target a bin the coordinator has already assigned to this vehicle.
+     */
+    void assignBin(GarbageBin bin, NdPoint binLocation) {
+        // Remember what the coordinator knows about the bin
+        NdPoint myPoint = space.getLocation(this);
+        knownBins.report(bin.getId(), binLocation.getX(), binLocation.getY(), 
+                         bin.getFillLevel(), bin.getCapacity(), bin.getAreaType(), 
+                         bin.getFillPercentage() >= 90.0, myPoint.getX(), myPoint.getY());
+        targetBin(bin.getId(), binLocation);
+    }
+    
+    /**
+     * Add a message to this vehicle's inbox. Safe to call from any thread.
      */
     public void receiveMessage(Message msg) {
-        inbox.add(msg);
+        inbox.send(msg);
+    }
+    
+    /**
+     * Add the status of a bin to this vehicle's inbox without creating a message.
+     * Safe to call from any thread.
+     */
+    public void receiveBinStatus(MessageType messageType, int senderId, int binId, double x, double y,
+                                 double fillLevel, double binCapacity, String areaType, boolean urgent) {
+        inbox.sendStatus(messageType, senderId, binId, x, y, fillLevel, binCapacity, areaType, urgent);
+    }
+    
+    /**
+     * Drop all messages in the inbox without processing them.
+     */
+    void clearInbox() {
+        inbox.clear();
     }
     
     // Getter methods
@@ -856,4 +1410,17 @@ public class Vehicle {
     public double getCapacity() {
         return capacity;
     }
+    
+    public int getCollectionsCompleted() {
+        return collectionsCompleted;
+    }
+    
+    public double getTotalDistanceTraveled() {
+        syncPosition();
+        return totalDistanceTraveled;
+    }
+    
+    public double getTotalCollected() {
+        return totalCollected;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,133 @@
+package garbageSimulation;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Verlet-style neighbor lists for vehicle-to-vehicle communication.
+ * Each vehicle keeps a cached list of the vehicles within the communication
+ * radius plus a skin distance. The lists are only rebuilt from the spatial
+ * grid once some vehicle has moved more than half the skin since the last
+ * rebuild, so between rebuilds a neighbor query is a scan of a short list.
+ * A skin of several ticks of travel keeps rebuilds rare while vehicles move
+ * every tick, at the cost of a few more candidates per list.
+ */
+public class VehicleNeighborList {
+    private final SpatialGrid<Vehicle> grid;
+    private final double radius;
+    private final double skin;
+
+    // Neighbor state for each vehicle
+    private final Map<Vehicle, Neighbors> neighbors = new IdentityHashMap<>();
+
+    // Set when a vehicle has moved far enough to invalidate the lists
+    private boolean needsRebuild = true;
+    private int rebuildCount = 0;
+
+    /**
+     * Cached neighbor candidates for one vehicle.
+     */
+    private static class Neighbors {
+        double x;
+        double y;
+        double referenceX;  // Position at the last rebuild
+        double referenceY;
+        final List<Vehicle> candidates = new ArrayList<>();
+    }
+
+    /**
+     * Create a new neighbor list.
+     *
+     * @param grid Spatial index of the vehicles
+     * @param radius Communication radius neighbors must be within
+     * @param skin Extra distance kept in the lists so they survive small moves
+     */
+    public VehicleNeighborList(SpatialGrid<Vehicle> grid, double radius, double skin) {
+        this.grid = grid;
+        this.radius = radius;
+        this.skin = skin;
+    }
+
+    /**
+     * Record a vehicle's new position in the neighbor lists and the spatial grid.
+     *
+     * @param vehicle Vehicle that moved
+     * @param x New X coordinate
+     * @param y New Y coordinate
+     */
+    public void update(Vehicle vehicle, double x, double y) {
+        grid.update(vehicle, x, y);
+
+        Neighbors entry = neighbors.get(vehicle);
+        if (entry == null) {
+            entry = new Neighbors();
+            neighbors.put(vehicle, entry);
+            needsRebuild = true;
+        }
+        entry.x = x;
+        entry.y = y;
+
+        // Two vehicles each moving half the skin toward each other can close the whole skin
+        double halfSkin = skin / 2;
+        if (!needsRebuild &&
+            grid.wrappedDistanceSquared(x, y, entry.referenceX, entry.referenceY) > halfSkin * halfSkin) {
+            needsRebuild = true;
+        }
+    }
+
+    /**
+     * Find the vehicles within the communication radius of a vehicle.
+     *
+     * @param vehicle Vehicle whose neighbors are wanted
+     * @param result List the neighbors are added to (the vehicle itself is excluded)
+     * @return The result list
+     */
+    public List<Vehicle> neighborsOf(Vehicle vehicle, List<Vehicle> result) {
+        if (needsRebuild) {
+            rebuild();
+        }
+
+        Neighbors entry = neighbors.get(vehicle);
+        if (entry == null) {
+            return result;
+        }
+
+        double radiusSquared = radius * radius;
+        for (int i = 0; i < entry.candidates.size(); i++) {
+            Vehicle other = entry.candidates.get(i);
+            Neighbors otherEntry = neighbors.get(other);
+            if (grid.wrappedDistanceSquared(entry.x, entry.y, otherEntry.x, otherEntry.y) <= radiusSquared) {
+                result.add(other);
+            }
+        }
+        return result;
+    }
+
+    public SpatialGrid<Vehicle> getGrid() {
+        return grid;
+    }
+
+    public int getRebuildCount() {
+        return rebuildCount;
+    }
+
+    /**
+     * Rebuild every vehicle's candidate list from the spatial grid.
+     */
+    private void rebuild() {
+        for (Map.Entry<Vehicle, Neighbors> mapEntry : neighbors.entrySet()) {
+            Vehicle vehicle = mapEntry.getKey();
+            Neighbors entry = mapEntry.getValue();
+
+            entry.candidates.clear();
+            grid.query(entry.x, entry.y, radius + skin, entry.candidates);
+            entry.candidates.remove(vehicle);
+            entry.referenceX = entry.x;
+            entry.referenceY = entry.y;
+        }
+        needsRebuild = false;
+        rebuildCount++;
+    }
+}